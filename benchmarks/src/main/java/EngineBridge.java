@@ -0,0 +1,85 @@
+import benchmarks.Engine;
+
+// This gives benchmarks (in named package) access to the simulator (in the unnamed package)
+// It is in the unnamed package, so it can use simulator classes directly
+public class EngineBridge implements Engine {
+	private Algorithm _Algorithm;
+	private DispatchStrategy _Dispatch;
+	private long _DispatchTime;
+
+	private FloorQueue _FloorQueue;
+	private Statistic _Statistic;
+	private PersonPool _People;
+	private int _Person;
+
+	public EngineBridge() {}
+
+	public void Run(int numberOfFloors,
+					int numberOfElevators,
+					int numberOfPeople,
+					long seed) {
+		Configuration configuration = Configure(numberOfFloors, numberOfElevators, numberOfPeople);
+		Algorithm algorithm = new Algorithm(configuration,
+											new RandomArrivals(configuration, new RandomStreams(seed, 0)),
+											DispatchStrategy.Create(configuration),
+											null,
+											null);
+		algorithm.Run();
+	}
+
+	public void Prepare(int numberOfFloors,
+						int numberOfElevators,
+						String dispatch,
+						int events,
+						long seed) {
+		Configuration configuration = Configure(numberOfFloors, numberOfElevators, Integer.MAX_VALUE);
+		configuration.Set(Configuration.DISPATCH, dispatch);
+		_Algorithm = new Algorithm(configuration,
+									new RandomArrivals(configuration, new RandomStreams(seed, 0)),
+									DispatchStrategy.Create(configuration),
+									null,
+									null);
+		for (int i = 0; i < events; ++i) {
+			_Algorithm.Step();
+		}
+		_Dispatch = DispatchStrategy.Create(configuration);
+		_DispatchTime = _Algorithm.Time();
+		_People = new PersonPool();
+		_FloorQueue = new FloorQueue(numberOfFloors, _People);
+		_Statistic = new Statistic(numberOfFloors);
+		_Person = _People.Create(0, 0, 0, numberOfFloors - 1);
+	}
+
+	private static Configuration Configure(int numberOfFloors,
+											int numberOfElevators,
+											int numberOfPeople) {
+		Configuration configuration = new Configuration();
+		configuration.Set(Configuration.FLOORS, Integer.toString(numberOfFloors));
+		configuration.Set(Configuration.ELEVATORS, Integer.toString(numberOfElevators));
+		configuration.Set(Configuration.PEOPLE, Integer.toString(numberOfPeople));
+		return configuration;
+	}
+
+	public boolean Step() {
+		return _Algorithm.Step();
+	}
+
+	public int Dispatch(int floor,
+						int direction) {
+		Elevator elevator = _Dispatch.Choose(_Algorithm.Elevators(), floor, direction, ++_DispatchTime);
+		return elevator == null ? Constants.INVALID_VALUE : elevator.Index();
+	}
+
+	public int FloorQueueAddRemove(int floor) {
+		_FloorQueue.Add(floor, _Person);
+		_FloorQueue.Remove(floor);
+		return _FloorQueue.Size();
+	}
+
+	public void StatisticAdd(int enterFloor,
+								int leaveFloor) {
+		int person = _People.Create(0, 0, enterFloor, leaveFloor);
+		_People.EnterElevator(person, 1500);
+		_People.LeaveElevator(person, 4200, _Statistic);
+	}
+}
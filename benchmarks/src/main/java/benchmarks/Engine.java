@@ -0,0 +1,41 @@
+package benchmarks;
+
+// This is everything benchmarks need from the simulator
+// Simulator classes are in the unnamed package, which cannot be imported from a named package
+// (and benchmarks must be in one), so the simulator is reached through this interface
+// It is implemented by EngineBridge, which is in the unnamed package too
+public interface Engine {
+	// Runs entire simulation
+	void Run(int numberOfFloors,
+				int numberOfElevators,
+				int numberOfPeople,
+				long seed);
+
+	// Creates simulation that never runs out of people with given dispatch strategy and runs it for given number of events
+	void Prepare(int numberOfFloors,
+					int numberOfElevators,
+					String dispatch,
+					int events,
+					long seed);
+	// Processes one event of prepared simulation (pending people and due elevator updates)
+	boolean Step();
+	// Chooses elevator on prepared simulation for people waiting on floor, returns its index
+	// Time is moved forward for every call, so nothing is reused from dispatcher cache for moving elevators
+	int Dispatch(int floor,
+					int direction);
+	// Adds person to floor queue and removes it again
+	int FloorQueueAddRemove(int floor);
+	// Adds a finished person to statistic
+	void StatisticAdd(int enterFloor,
+						int leaveFloor);
+
+	// Returns bridge implemented in the unnamed package
+	static Engine Create() {
+		try {
+			return (Engine)Class.forName("EngineBridge").getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException exception) {
+			throw new IllegalStateException("Simulator classes are not on class path", exception);
+		}
+	}
+}
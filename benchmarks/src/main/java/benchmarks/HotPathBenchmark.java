@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// This measures single operations on a simulation that has been running for a while
+//	Event: processing pending people and updating due elevators (Algorithm.ProcessPeople and Elevator.Update)
+//	Dispatch: choosing elevator for one group of pending people (body of Algorithm.ProcessPeople)
+//	FloorQueueAddRemove: adding and removing person in elevator floor queue
+//	StatisticAdd: adding finished person to statistic
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathBenchmark {
+	private static final int WARMUP_EVENTS = 100000;
+
+	@Param({ "10", "50" })
+	public int _NumberOfFloors;
+	@Param({ "4", "16", "64" })
+	public int _NumberOfElevators;
+	@Param({ "pickup", "lookahead" })
+	public String _Dispatch;
+
+	private Engine _Engine;
+	private int _Floor;
+
+	@Setup(Level.Trial)
+	public void Setup() {
+		_Engine = Engine.Create();
+		_Engine.Prepare(_NumberOfFloors, _NumberOfElevators, _Dispatch, WARMUP_EVENTS, 1);
+	}
+
+	@Benchmark
+	public boolean Event() {
+		return _Engine.Step();
+	}
+
+	@Benchmark
+	public int Dispatch() {
+		_Floor = (_Floor + 1) % _NumberOfFloors;
+		return _Engine.Dispatch(_Floor, (_Floor & 1) == 0 ? 1 : -1);
+	}
+
+	@Benchmark
+	public int FloorQueueAddRemove() {
+		_Floor = (_Floor + 1) % _NumberOfFloors;
+		return _Engine.FloorQueueAddRemove(_Floor);
+	}
+
+	@Benchmark
+	public void StatisticAdd() {
+		_Floor = (_Floor + 1) % _NumberOfFloors;
+		_Engine.StatisticAdd(_Floor, _NumberOfFloors - 1 - _Floor == _Floor ? 0 : _NumberOfFloors - 1 - _Floor);
+	}
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// This measures entire simulation (Algorithm.Run) for several building sizes
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RunBenchmark {
+	@Param({ "10", "50" })
+	public int _NumberOfFloors;
+	@Param({ "4", "16" })
+	public int _NumberOfElevators;
+	@Param({ "10000", "100000" })
+	public int _NumberOfPeople;
+
+	private Engine _Engine;
+	private long _Seed;
+
+	@Setup
+	public void Setup() {
+		_Engine = Engine.Create();
+	}
+
+	@Benchmark
+	public void Run() {
+		_Engine.Run(_NumberOfFloors, _NumberOfElevators, _NumberOfPeople, ++_Seed);
+	}
+}
@@ -0,0 +1,83 @@
+// Author: Sayeed Gulmahamad
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// This calculates count, average and standard deviation of values while they are being added
+// Values are not stored, so the memory used does not depend on the number of values
+// Welford's method is used for updating the average and squared differences in a numerically stable way
+// Two accumulators can be merged (Chan's method), which is used for merging replications
+// Accumulator can be written in binary form and read back exactly, so it can be sent to another process or saved
+public class Accumulator {
+	private long _Count = 0;
+	private double _Average = 0;
+	// Sum of squared differences from the current average
+	private double _SquaredDifferences = 0;
+
+	public Accumulator() {}
+
+	public void Add(double value) {
+		++_Count;
+		double difference = value - _Average;
+		_Average += difference / _Count;
+		_SquaredDifferences += difference * (value - _Average);
+	}
+
+	public void Merge(Accumulator other) {
+		if (other._Count == 0) {
+			return;
+		}
+		if (_Count == 0) {
+			_Count = other._Count;
+			_Average = other._Average;
+			_SquaredDifferences = other._SquaredDifferences;
+			return;
+		}
+		long count = _Count + other._Count;
+		double difference = other._Average - _Average;
+		_Average += difference * other._Count / count;
+		_SquaredDifferences += other._SquaredDifferences + difference * difference * ((double)_Count * other._Count / count);
+		_Count = count;
+	}
+
+	public void Write(DataOutput output) throws IOException {
+		output.writeLong(_Count);
+		output.writeDouble(_Average);
+		output.writeDouble(_SquaredDifferences);
+	}
+	// This replaces accumulated values with the ones read
+	public void Read(DataInput input) throws IOException {
+		_Count = input.readLong();
+		_Average = input.readDouble();
+		_SquaredDifferences = input.readDouble();
+	}
+
+	public long Count() {
+		return _Count;
+	}
+	public double Average() {
+		return _Average;
+	}
+	// Standard deviation of all added values (population standard deviation)
+	public double StandardDeviation() {
+		if (_Count == 0) {
+			return 0;
+		}
+		return Math.sqrt(_SquaredDifferences / _Count);
+	}
+	// Variance of added values as a sample (divided by count - 1), it is unknown for less than two values
+	public double SampleVariance() {
+		if (_Count < 2) {
+			return Double.NaN;
+		}
+		return _SquaredDifferences / (_Count - 1);
+	}
+	// Half width of the confidence interval of the average (Student's t distribution)
+	// Added values should be independent, for example averages of different replications
+	public double HalfWidth(double confidence) {
+		if (_Count < 2) {
+			return Double.NaN;
+		}
+		return Methods.StudentTQuantile(0.5 + confidence / 2, _Count - 1) * Math.sqrt(SampleVariance() / _Count);
+	}
+}
@@ -1,200 +1,267 @@
-// Author: Sayeed Gulmahamad
-import java.util.ArrayList;
-
-// This implements the entire logic for the Elevator-Person relationship
-public class Algorithm {
-	private float _Time;
-	private float _TimeUntilPersonCreate;
-	private int _NumberOfFloors;
-	private int _PeopleToCreate;
-
-	private ArrayList<Elevator> _Elevators;
-	private ArrayList<Person> _PeoplePending;
-
-	public Algorithm(int numberOfFloors,
-					int numberOfElevators,
-					int numberOfPeople) {
-		// Set everything up
-		_Time = 0;
-		_TimeUntilPersonCreate = 0;
-		_NumberOfFloors = numberOfFloors;
-		_PeopleToCreate = numberOfPeople;
-		_Elevators = new ArrayList<Elevator>();
-		for (int i = 0; i < numberOfElevators; ++i) {
-			_Elevators.add(new Elevator());
-		}
-		_PeoplePending = new ArrayList<Person>();
-	}
-
-	// Starts entire simulation
-	public void Run() {
-		float deltaTime = Process();
-		while (Update(deltaTime)) {
-			deltaTime = Process();
-		}
-	}
-
-	// Process everything and returns time until next event
-	private float Process() {
-		// If it is time to create new person, do it
-		if (_TimeUntilPersonCreate == 0) {
-			CreatePerson();
-		}
-		// In any case, process pending/waiting people and update afterwards
-		// People that are left as pending will wait next event
-		ProcessPeople();
-		return ProcessTime();
-	}
-
-	// Update simulates passing time returned from Process in all components
-	private boolean Update(float deltaTime) {
-		if (deltaTime == Constants.INVALID_TIME) {
-			return false;
-		}
-		// Only process person creation time if more people need to be created
-		if (_TimeUntilPersonCreate != Constants.INVALID_TIME) {
-			_TimeUntilPersonCreate -= deltaTime;
-		}
-		for (int i = 0; i < _Elevators.size(); ++i) {
-			_Elevators.get(i).Update(_Time, deltaTime);
-		}
-		_Time += deltaTime;
-		return true;
-	}
-
-	private void CreatePerson() {
-		int enterFloor = Methods.NextInt(_NumberOfFloors, _NumberOfFloors);
-		int leaveFloor = Methods.NextInt(_NumberOfFloors, enterFloor);
-		Person person = new Person(_Time,
-									enterFloor,
-									leaveFloor);
-		// Everyone is put in people pending and the algorithm tries to assign them to elevator
-		_PeoplePending.add(person);
-		// Set time for creating the next person and decrease people as needed
-		// If no more people should be created, invalidate creation time
-		--_PeopleToCreate;
-		if (_PeopleToCreate == 0) {
-			_TimeUntilPersonCreate = Constants.INVALID_TIME;
-		} else {
-			_TimeUntilPersonCreate = Methods.NextFloatExponentialDistribution(_NumberOfFloors);
-		}
-	}
-
-	// ****************************************************************************************************
-	// PEOPLE PROCESSING
-	private void ProcessPeople() {
-		// Create local copy of all elevators since it will be filtered
-		ArrayList<Elevator> elevators = new ArrayList<Elevator>(_Elevators);
-		int count = _PeoplePending.size();
-		int index = 0;
-		for (int i = 0; i < count; ++i) {
-			// Filter stoppable elevators prior to processing anyone
-			FilterElevators(elevators);
-			if (elevators.isEmpty()) {
-				return;
-			}
-			Person person = _PeoplePending.get(index);
-			// Pair every person against every stoppable elevator and chose best match, if any
-			Elevator bestElevator = null;
-			float bestTime = Constants.INVALID_VALUE;
-			for (int j = 0; j < elevators.size(); ++j) {
-				Elevator elevator = elevators.get(j);
-				// Check if an elevator and person can be assigned to each other
-				if (CanAssign(elevator, person)) {
-					// Find best assignable pair, if any
-					float time = CalculateTime(elevator, person);
-					if (bestTime == Constants.INVALID_VALUE ||
-						time < bestTime) {
-						bestElevator = elevator;
-						bestTime = time;
-					}
-				}
-			}
-			// If there is any match, assign person to best matching elevator
-			if (bestElevator != null) {
-				bestElevator.AddWaitingPerson(_PeoplePending.remove(index),
-												_Time);
-			} else {
-				++index;
-			}
-		}
-	}
-
-	// This removes elevators that cannot stop, from all elevators
-	private void FilterElevators(ArrayList<Elevator> elevators) {
-		int count = elevators.size();
-		int index = 0;
-		for (int i = 0; i < count; ++i) {
-			if (!elevators.get(index).CanStop(null)) {
-				elevators.remove(index);
-			} else {
-				++index;
-			}
-		}
-	}
-
-	// This checks if a person can be assigned to an elevator
-	private boolean CanAssign(Elevator elevator,
-								Person person) {
-		// If an elevator is not going anywhere, it can be assigned
-		if (elevator.IsStopped()) {
-			return true;
-		}
-		// If an elevator cannot stop, it cannot be assigned
-		if (!elevator.CanStop(person)) {
-			return false;
-		}
-		// Check if an elevator and person are going in same direction
-		if (elevator.Direction() != person.Direction()) {
-			return false;
-		}
-		// If the directions match, check if the elevator has already passed the person
-		// Case for going up
-		if (elevator.Direction() == 1 &&
-			elevator.Floor() > person.EnterFloor()) {
-			return false;
-		}
-		// Case for going down
-		if (elevator.Direction() == -1 &&
-			elevator.Floor() < person.EnterFloor()) {
-			return false;
-		}
-		// In all other cases, assigning is possible
-		return true;
-	}
-
-	// This calculates the time it would take for elevator to collect a person
-	// This method is only called for assignable pairs
-	private float CalculateTime(Elevator elevator,
-								Person person) {
-		float time = 0;
-		// Add moving time
-		time += Math.abs(person.EnterFloor() - elevator.Floor()) * Constants.ELEVATOR_FLOOR_TIME;
-		// Add time for people entering before person
-		time += elevator.WaitStopFloorsBeforeEnter(person).size() * Constants.ELEVATOR_ENTER_TIME;
-		// Add time for people entering before person
-		time += elevator.WaitStopFloorsBeforeEnter(person).size() * Constants.ELEVATOR_LEAVE_TIME;
-		return time;
-	}
-	// ****************************************************************************************************
-
-	// ****************************************************************************************************
-	// TIME PROCESSING
-	private float ProcessTime() {
-		// After processing is over, determine when will the next event occur
-		// There are two kinds of events:
-		//	1.New person creation
-		//	2.Elevator state change
-		// The important thing is to always take the least amount of time out of all
-		// If invalid time is returned, that means simulation is over
-		float deltaTime = _TimeUntilPersonCreate;
-		for (int i = 0; i < _Elevators.size(); ++i) {
-			float elevatorDeltaTime = _Elevators.get(i).DeltaTime(_Time);
-			if (elevatorDeltaTime < deltaTime) {
-				deltaTime = elevatorDeltaTime;
-			}
-		}
-		return deltaTime;
-	}
-	// ****************************************************************************************************
-}
+// Author: Sayeed Gulmahamad
+import java.util.ArrayList;
+
+// This implements the entire logic for the Elevator-Person relationship
+// Algorithm does not share any state with other algorithms so replications can run in parallel
+// Time goes from event to event, and only elevators whose event happens are updated
+// Pending people are grouped by floor and direction, and dispatch strategy chooses elevator for every group
+// People are created when their arrival from arrival source is due
+// If there is event recorder, people created and assigned to elevators are recorded in it
+// If there are metrics, counts of the replication are added to them every few thousand events and at the end
+// Interruption of the thread is checked as often, and an interrupted replication stops there with its thread still interrupted
+// If there is a time series, arrivals and people pending after every event are added to it, and elevators end it at the end
+public class Algorithm {
+	private long _Time;
+	private long _PersonCreateTime;
+
+	private ArrayList<Elevator> _Elevators;
+	// People pending are grouped by enter floor, separately for going up and down
+	private FloorQueue _PeoplePendingUp;
+	private FloorQueue _PeoplePendingDown;
+	// Groups of pending people (floor and direction) in order in which their first person was created
+	private int[] _PendingGroups;
+	private int _PendingGroupCount;
+	private DispatchStrategy _Dispatch;
+	// Next event time of every elevator
+	private EventQueue _Events;
+	// Elevators whose event happens at current time
+	private int[] _DueElevators;
+
+	private ArrivalSource _Arrivals;
+	private int _PeopleCreated;
+	// All people of the replication, a person is an index in it
+	private PersonPool _People;
+	private Statistic _Statistic;
+	// Time series of the statistic or null if there is none
+	private TimeSeries _TimeSeries;
+	// Event recorder or null if events are not recorded
+	private EventRecorder _Recorder;
+	// Metrics or null if there are none, and counts already added to them
+	private Metrics _Metrics;
+	private int _PeoplePending;
+	private long _MetricsEvents;
+	private long _MetricsPeopleCreated;
+	private long _MetricsPeopleCompleted;
+	private long _MetricsPeoplePending;
+	private long[] _MetricsStateTicks;
+	// Elevator states and state ticks since they were last added, kept so adding metrics does not allocate
+	private ElevatorState[] _States;
+	private long[] _StateTicks;
+
+	public Algorithm(Configuration configuration,
+					ArrivalSource arrivals,
+					DispatchStrategy dispatch,
+					EventRecorder recorder,
+					Metrics metrics) {
+		// Set everything up
+		int numberOfFloors = configuration.NumberOfFloors();
+		int numberOfElevators = configuration.NumberOfElevators();
+		_Arrivals = arrivals;
+		_PeopleCreated = 0;
+		_People = new PersonPool();
+		_Dispatch = dispatch;
+		_Recorder = recorder;
+		_Metrics = metrics;
+		_PeoplePending = 0;
+		_States = ElevatorState.values();
+		_MetricsStateTicks = new long[_States.length];
+		_StateTicks = new long[_States.length];
+		_TimeSeries = TimeSeries.Create(configuration);
+		_Statistic = new Statistic(numberOfFloors, configuration.Zones(), _TimeSeries);
+		_Time = 0;
+		_PersonCreateTime = _Arrivals.Next() ? _Arrivals.Time() : Constants.INVALID_TIME;
+		_Elevators = new ArrayList<Elevator>();
+		for (int i = 0; i < numberOfElevators; ++i) {
+			_Elevators.add(new Elevator(i, configuration, _People, _Statistic, _Recorder));
+		}
+		_PeoplePendingUp = new FloorQueue(numberOfFloors, _People);
+		_PeoplePendingDown = new FloorQueue(numberOfFloors, _People);
+		_PendingGroups = new int[2 * numberOfFloors];
+		_PendingGroupCount = 0;
+		_Events = new EventQueue(numberOfElevators);
+		_DueElevators = new int[numberOfElevators];
+	}
+
+	public Statistic Statistic() {
+		return _Statistic;
+	}
+	// Elevators and current time are used by benchmarks to measure dispatching on a running simulation
+	ArrayList<Elevator> Elevators() {
+		return _Elevators;
+	}
+	long Time() {
+		return _Time;
+	}
+
+	// Starts entire simulation
+	public void Run() {
+		if (_Metrics != null) {
+			_Metrics.ReplicationStarted();
+		}
+		long events = 0;
+		while (Step()) {
+			if ((++events & Metrics.PUBLISH_MASK) == 0) {
+				if (_Metrics != null) {
+					AddMetrics(events);
+				}
+				if (Thread.currentThread().isInterrupted()) {
+					if (_Metrics != null) {
+						_Metrics.ReplicationStopped();
+					}
+					return;
+				}
+			}
+		}
+		if (_Metrics != null) {
+			AddMetrics(events);
+			_Metrics.ReplicationFinished();
+		}
+		if (_TimeSeries != null) {
+			for (int i = 0; i < _Elevators.size(); ++i) {
+				_Elevators.get(i).Finish(_Time);
+			}
+			_TimeSeries.Finish(_Time);
+		}
+	}
+
+	// This adds counts since they were last added to metrics
+	private void AddMetrics(long events) {
+		for (int i = 0; i < _States.length; ++i) {
+			long ticks = 0;
+			for (int j = 0; j < _Elevators.size(); ++j) {
+				ticks += _Elevators.get(j).StateTicks(_States[i], _Time);
+			}
+			_StateTicks[i] = ticks - _MetricsStateTicks[i];
+			_MetricsStateTicks[i] = ticks;
+		}
+		long peopleCompleted = _Statistic.NumberOfPeople();
+		_Metrics.Add(events - _MetricsEvents,
+					_PeopleCreated - _MetricsPeopleCreated,
+					peopleCompleted - _MetricsPeopleCompleted,
+					_PeoplePending - _MetricsPeoplePending,
+					_StateTicks);
+		_MetricsEvents = events;
+		_MetricsPeopleCreated = _PeopleCreated;
+		_MetricsPeopleCompleted = peopleCompleted;
+		_MetricsPeoplePending = _PeoplePending;
+	}
+
+	// Processes current event and moves to the next one
+	// It returns false when simulation is over
+	boolean Step() {
+		return Update(Process());
+	}
+
+	// Process everything and returns time of next event
+	private long Process() {
+		// If it is time to create new person, do it
+		if (_PersonCreateTime == _Time) {
+			CreatePerson();
+		}
+		// In any case, process pending/waiting people and update afterwards
+		// People that are left as pending will wait next event
+		ProcessPeople();
+		if (_TimeSeries != null) {
+			_TimeSeries.Pending(_Time, _PeoplePending);
+		}
+		return ProcessTime();
+	}
+
+	// Update moves time to the next event returned from Process and updates elevators whose event it is
+	// Every due elevator is updated once, even if its next event happens at the same time again
+	private boolean Update(long nextTime) {
+		if (nextTime == Constants.INVALID_TIME) {
+			return false;
+		}
+		_Time = nextTime;
+		int count = 0;
+		while (_Events.PeekTime() == _Time) {
+			int index = _Events.Peek();
+			_DueElevators[count++] = index;
+			_Events.Update(index, Constants.INVALID_TIME);
+		}
+		for (int i = 0; i < count; ++i) {
+			Elevator elevator = _Elevators.get(_DueElevators[i]);
+			elevator.Update(_Time);
+			_Events.Update(elevator.Index(), elevator.NextEventTime());
+		}
+		return true;
+	}
+
+	private void CreatePerson() {
+		int enterFloor = _Arrivals.EnterFloor();
+		int leaveFloor = _Arrivals.LeaveFloor();
+		int person = _People.Create(_PeopleCreated++,
+									_Time,
+									enterFloor,
+									leaveFloor);
+		int direction = _People.Direction(person);
+		// Everyone is put in people pending and the algorithm tries to assign them to elevator
+		// If person is the first one in its group, the group is added after all other pending groups
+		FloorQueue peoplePending = direction == 1 ? _PeoplePendingUp : _PeoplePendingDown;
+		if (peoplePending.IsEmpty(enterFloor)) {
+			_PendingGroups[_PendingGroupCount++] = direction == 1 ? enterFloor : -enterFloor - 1;
+		}
+		peoplePending.Add(enterFloor, person);
+		++_PeoplePending;
+		if (_TimeSeries != null) {
+			_TimeSeries.Arrival(_Time);
+		}
+		if (_Recorder != null) {
+			_Recorder.RecordPerson(_Time, EventRecorder.ARRIVAL, _People, person, Constants.INVALID_VALUE, enterFloor);
+		}
+		// Set time for creating the next person
+		// If there are no more arrivals, invalidate creation time
+		_PersonCreateTime = _Arrivals.Next() ? _Arrivals.Time() : Constants.INVALID_TIME;
+	}
+
+	// ****************************************************************************************************
+	// PEOPLE PROCESSING
+	// Every group of people pending on the same floor in the same direction is assigned to the elevator chosen by dispatch strategy
+	// Groups are processed in order of creation, and groups without elevator keep their order and wait next event
+	// Group is stored as enter floor for going up and as -(enter floor + 1) for going down
+	private void ProcessPeople() {
+		int count = 0;
+		for (int i = 0; i < _PendingGroupCount; ++i) {
+			int group = _PendingGroups[i];
+			int floor = group >= 0 ? group : -group - 1;
+			int direction = group >= 0 ? 1 : -1;
+			FloorQueue peoplePending = direction == 1 ? _PeoplePendingUp : _PeoplePendingDown;
+			Elevator elevator = _Dispatch.Choose(_Elevators, floor, direction, _Time);
+			// The elevator event time changes with new people, so it is rescheduled
+			if (elevator != null) {
+				while (!peoplePending.IsEmpty(floor)) {
+					int person = peoplePending.Remove(floor);
+					elevator.AddWaitingPerson(person, _Time);
+					--_PeoplePending;
+					if (_Recorder != null) {
+						_Recorder.RecordPerson(_Time, EventRecorder.ASSIGN, _People, person, elevator.Index(), floor);
+					}
+				}
+				_Events.Update(elevator.Index(), elevator.NextEventTime());
+			} else {
+				_PendingGroups[count++] = group;
+			}
+		}
+		_PendingGroupCount = count;
+	}
+	// ****************************************************************************************************
+
+	// ****************************************************************************************************
+	// TIME PROCESSING
+	private long ProcessTime() {
+		// After processing is over, determine when will the next event occur
+		// There are two kinds of events:
+		//	1.New person creation
+		//	2.Elevator state change
+		// The important thing is to always take the earliest of all
+		// Elevator events are kept in event queue, so only the earliest one has to be checked
+		// If invalid time is returned, that means simulation is over
+		long nextTime = _PersonCreateTime;
+		if (_Events.PeekTime() < nextTime) {
+			nextTime = _Events.PeekTime();
+		}
+		return nextTime;
+	}
+	// ****************************************************************************************************
+}
@@ -0,0 +1,75 @@
+// Author: Sayeed Gulmahamad
+import java.util.SplittableRandom;
+
+// This chooses random indices with given weights in constant time, no matter how many indices there are (alias method, Vose)
+// Every index has a column with the probability of keeping it, and the rest of its column goes to its alias
+// A single random number chooses both the column (its whole part) and whether to keep it (its fraction)
+// Table is made once in linear time and only read afterwards, so it can be shared between replications
+public class AliasTable {
+	private double[] _Probabilities;
+	private int[] _Aliases;
+
+	// Weights must not be negative and at least one must be positive
+	public AliasTable(double[] weights) {
+		int count = weights.length;
+		double total = 0;
+		for (int i = 0; i < count; ++i) {
+			if (!(weights[i] >= 0)) {
+				throw new IllegalArgumentException("Weights must not be negative");
+			}
+			total += weights[i];
+		}
+		if (!(total > 0)) {
+			throw new IllegalArgumentException("Weights must not all be zero");
+		}
+		_Probabilities = new double[count];
+		_Aliases = new int[count];
+		// Columns below and above the average are kept on two stacks in one array, small ones from the start and large ones from the end
+		int[] stacks = new int[count];
+		int small = 0;
+		int large = count;
+		double[] scaled = new double[count];
+		for (int i = 0; i < count; ++i) {
+			scaled[i] = weights[i] * count / total;
+			if (scaled[i] < 1) {
+				stacks[small++] = i;
+			} else {
+				stacks[--large] = i;
+			}
+		}
+		while (small > 0 && large < count) {
+			int less = stacks[--small];
+			int more = stacks[large++];
+			_Probabilities[less] = scaled[less];
+			_Aliases[less] = more;
+			scaled[more] -= 1 - scaled[less];
+			if (scaled[more] < 1) {
+				stacks[small++] = more;
+			} else {
+				stacks[--large] = more;
+			}
+		}
+		// Columns that are left are full, up to rounding errors
+		while (small > 0) {
+			int index = stacks[--small];
+			_Probabilities[index] = 1;
+			_Aliases[index] = index;
+		}
+		while (large < count) {
+			int index = stacks[large++];
+			_Probabilities[index] = 1;
+			_Aliases[index] = index;
+		}
+	}
+
+	public int Size() {
+		return _Probabilities.length;
+	}
+
+	// This returns a random index
+	public int Next(SplittableRandom random) {
+		double value = random.nextDouble() * _Probabilities.length;
+		int index = (int)value;
+		return value - index < _Probabilities[index] ? index : _Aliases[index];
+	}
+}
@@ -0,0 +1,12 @@
+// Author: Sayeed Gulmahamad
+// This gives arrivals of people to the algorithm, one by one in order of time
+// Arrival is the time when person is created, together with enter and leave floor
+// Source is read as the simulation goes, so arrivals are never all kept in memory
+public interface ArrivalSource {
+	// Moves to the next arrival and returns false when there are no more arrivals
+	boolean Next();
+	// These return the current arrival, time is in ticks
+	long Time();
+	int EnterFloor();
+	int LeaveFloor();
+}
@@ -0,0 +1,74 @@
+// Author: Sayeed Gulmahamad
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// This writes results in a compact binary form for programs that read them
+// Rows are written as they come and the end is marked, so number of rows does not have to be known in advance
+
+// Report file format (big endian, as written by DataOutput):
+//	Header: magic "ELVR" (4 bytes), version (int), number of columns (int), column names (UTF each)
+//	Summary: master seed (long), replication (int, -1 if all were run), replications (long), stop reason (UTF, empty if all were run),
+//			has intervals (boolean), wait time average and half width, percentile and half width (doubles, only if there are intervals)
+//	Rows: type (byte, PAIR or ALL), name (UTF), floors (4 ints, only for PAIR), people (long), other values (floats)
+//	End: type END
+public class BinaryReport implements ReportWriter {
+	public static final int MAGIC = 0x454C5652;
+	public static final int VERSION = 1;
+	public static final byte PAIR = 0;
+	public static final byte ALL = 1;
+	public static final byte END = -1;
+
+	private DataOutputStream _Output;
+
+	public BinaryReport(DataOutputStream output) {
+		_Output = output;
+	}
+
+	public void Summary(long masterSeed,
+						int replication,
+						long replications,
+						String stopReason,
+						double[] intervals) throws IOException {
+		_Output.writeInt(MAGIC);
+		_Output.writeInt(VERSION);
+		_Output.writeInt(Report.COLUMNS.length);
+		for (String column : Report.COLUMNS) {
+			_Output.writeUTF(column);
+		}
+		_Output.writeLong(masterSeed);
+		_Output.writeInt(replication);
+		_Output.writeLong(replications);
+		_Output.writeUTF(stopReason == null ? "" : stopReason);
+		_Output.writeBoolean(intervals != null);
+		if (intervals != null) {
+			for (int i = 0; i < 4; ++i) {
+				_Output.writeDouble(intervals[i]);
+			}
+		}
+	}
+
+	public void Row(String name,
+					int[] floors,
+					double[] values) throws IOException {
+		_Output.writeByte(floors == null ? ALL : PAIR);
+		_Output.writeUTF(name);
+		if (floors != null) {
+			for (int i = 0; i < 4; ++i) {
+				_Output.writeInt(floors[i]);
+			}
+		}
+		_Output.writeLong((long)values[Report.PEOPLE]);
+		for (int i = Report.PEOPLE + 1; i < values.length; ++i) {
+			_Output.writeFloat((float)values[i]);
+		}
+	}
+
+	public void close() throws IOException {
+		try {
+			_Output.writeByte(END);
+		}
+		finally {
+			_Output.close();
+		}
+	}
+}
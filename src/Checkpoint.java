@@ -0,0 +1,118 @@
+// Author: Sayeed Gulmahamad
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// This is the state of a Monte Carlo run after some of its replications were merged, so the run can be resumed
+// Replications are merged in order of index, so merged replications are always the first ones and their number is enough to know which
+// Random generators of a replication are made from master seed and replication index, so master seed is all the random state there is
+// Checkpoint is written to a temporary file that is synced to disk and then renamed, so the file is always a whole checkpoint
+// Settings are kept as text and a checkpoint can only be resumed with the same ones
+
+// Checkpoint file format (big endian, as written by DataOutput):
+//	magic "ELVC" (4 bytes), version (int), master seed (long), settings (UTF), number of merged replications (long),
+//	wait time averages and percentiles of replications (accumulators), merged statistic (snapshot)
+public class Checkpoint {
+	public static final int MAGIC = 0x454C5643;
+	public static final int VERSION = 3;
+
+	private long _MasterSeed;
+	private String _Settings;
+	private Accumulator _WaitTimeAverages;
+	private Accumulator _WaitTimePercentiles;
+	private Statistic _Statistic;
+
+	public Checkpoint(Configuration configuration,
+						Accumulator waitTimeAverages,
+						Accumulator waitTimePercentiles,
+						Statistic statistic) {
+		_MasterSeed = configuration.MasterSeed();
+		_Settings = configuration.CheckpointSettings();
+		_WaitTimeAverages = waitTimeAverages;
+		_WaitTimePercentiles = waitTimePercentiles;
+		_Statistic = statistic;
+	}
+	private Checkpoint() {}
+
+	public void Write(String fileName) throws IOException {
+		Path path = Paths.get(fileName).toAbsolutePath();
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeLong(_MasterSeed);
+			output.writeUTF(_Settings);
+			output.writeLong(_WaitTimeAverages.Count());
+			_WaitTimeAverages.Write(output);
+			_WaitTimePercentiles.Write(output);
+			_Statistic.Write(output);
+			output.flush();
+			channel.force(true);
+		}
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		// Rename is only durable when the directory is synced too, which not every platform allows
+		try (FileChannel directory = FileChannel.open(path.getParent(), StandardOpenOption.READ)) {
+			directory.force(true);
+		}
+		catch (IOException exception) {}
+	}
+
+	public static Checkpoint Read(String fileName) throws IOException {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(fileName))))) {
+			if (input.readInt() != MAGIC) {
+				throw new IOException("File " + fileName + " is not a checkpoint file");
+			}
+			int version = input.readInt();
+			if (version != VERSION) {
+				throw new IOException("Checkpoint file " + fileName + " has unknown version " + version);
+			}
+			Checkpoint checkpoint = new Checkpoint();
+			checkpoint._MasterSeed = input.readLong();
+			checkpoint._Settings = input.readUTF();
+			long replications = input.readLong();
+			checkpoint._WaitTimeAverages = new Accumulator();
+			checkpoint._WaitTimeAverages.Read(input);
+			checkpoint._WaitTimePercentiles = new Accumulator();
+			checkpoint._WaitTimePercentiles.Read(input);
+			checkpoint._Statistic = Statistic.Read(input);
+			if (checkpoint._WaitTimeAverages.Count() != replications) {
+				throw new IOException("Checkpoint file " + fileName + " is invalid");
+			}
+			return checkpoint;
+		}
+	}
+
+	// This checks that the checkpoint was written by a run with the same settings
+	public void Check(Configuration configuration) {
+		if (_MasterSeed != configuration.MasterSeed() || !_Settings.equals(configuration.CheckpointSettings())) {
+			throw new IllegalArgumentException("Checkpoint was written with other settings: " + _Settings);
+		}
+	}
+
+	public long MasterSeed() {
+		return _MasterSeed;
+	}
+	// Number of merged replications
+	public int NumberOfReplications() {
+		return (int)_WaitTimeAverages.Count();
+	}
+	public Accumulator WaitTimeAverages() {
+		return _WaitTimeAverages;
+	}
+	public Accumulator WaitTimePercentiles() {
+		return _WaitTimePercentiles;
+	}
+	public Statistic Statistic() {
+		return _Statistic;
+	}
+}
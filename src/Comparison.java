@@ -0,0 +1,197 @@
+// Author: Sayeed Gulmahamad
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// This compares two or more variants of settings with common random numbers (paired comparison)
+// Every replication is run once for every variant, and all variants get exactly the same people (arrival times and floors)
+// Differences to the first variant are taken in every replication, so noise of the people themselves cancels out
+// Confidence intervals of differences are made from replication differences, which are independent of each other
+// Variance reduction shows how many times more replications two independent runs would need for the same precision
+// Results are written straight to a writer, there are a few lines for every floor pair and variant
+public class Comparison {
+	private Configuration _Configuration;
+	private Configuration[] _Variants;
+	private String[] _VariantNames;
+	private int _NumberOfFloors;
+	private int _NumberOfSimulations;
+	private int _NumberOfWorkers;
+
+	// Differences of averages to the first variant, by variant and floor pair (as in statistic), in order of pairs
+	private ArrayList<TreeMap<Long, Accumulator>> _WaitTimeDifferences;
+	private ArrayList<TreeMap<Long, Accumulator>> _TravelTimeDifferences;
+	private Accumulator[] _BuildingWaitTimeDifferences;
+	private Accumulator[] _BuildingTravelTimeDifferences;
+	// Averages of every replication, by variant, used for variance reduction
+	private Accumulator[] _BuildingWaitTimes;
+	private Accumulator[] _BuildingTravelTimes;
+	// Merged statistic of every variant
+	private Statistic[] _Statistics;
+
+	public Comparison(Configuration configuration) {
+		_Configuration = configuration;
+		_NumberOfFloors = configuration.NumberOfFloors();
+		_NumberOfSimulations = configuration.NumberOfSimulations();
+		_NumberOfWorkers = Math.max(1, Math.min(configuration.NumberOfWorkers(), _NumberOfSimulations));
+		ArrayList<String> keys = new ArrayList<String>();
+		ArrayList<String[]> values = new ArrayList<String[]>();
+		for (Map.Entry<String, String> compare : configuration.Compare().entrySet()) {
+			keys.add(compare.getKey());
+			values.add(Configuration.SweepValues(compare.getValue()));
+		}
+		int numberOfVariants = values.get(0).length;
+		_Variants = new Configuration[numberOfVariants];
+		_VariantNames = new String[numberOfVariants];
+		for (int i = 0; i < numberOfVariants; ++i) {
+			_Variants[i] = configuration.Copy();
+			_VariantNames[i] = "";
+			for (int j = 0; j < keys.size(); ++j) {
+				_Variants[i].Set(keys.get(j), values.get(j)[i]);
+				_VariantNames[i] = _VariantNames[i].concat(String.format("%s%s = %s", j == 0 ? "" : " ", keys.get(j), values.get(j)[i]));
+			}
+		}
+	}
+
+	public int NumberOfVariants() {
+		return _Variants.length;
+	}
+
+	// Runs all replications of all variants and keeps comparison results
+	public void Run() {
+		Initialize();
+		ExecutorService executor = Executors.newFixedThreadPool(_NumberOfWorkers);
+		try {
+			ArrayList<Future<Statistic[]>> replications = new ArrayList<Future<Statistic[]>>();
+			for (int i = 0; i < _NumberOfSimulations; ++i) {
+				replications.add(executor.submit(new PairedReplication(_Variants, i)));
+			}
+			// Replications are added in submission order so the result does not depend on scheduling
+			for (int i = 0; i < replications.size(); ++i) {
+				Add(replications.get(i).get());
+				replications.set(i, null);
+			}
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Comparison interrupted", exception);
+		}
+		catch (ExecutionException exception) {
+			throw new RuntimeException("Comparison replication failed", exception.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void Initialize() {
+		int numberOfVariants = _Variants.length;
+		_WaitTimeDifferences = new ArrayList<TreeMap<Long, Accumulator>>();
+		_TravelTimeDifferences = new ArrayList<TreeMap<Long, Accumulator>>();
+		_BuildingWaitTimeDifferences = new Accumulator[numberOfVariants];
+		_BuildingTravelTimeDifferences = new Accumulator[numberOfVariants];
+		_BuildingWaitTimes = new Accumulator[numberOfVariants];
+		_BuildingTravelTimes = new Accumulator[numberOfVariants];
+		_Statistics = new Statistic[numberOfVariants];
+		for (int i = 0; i < numberOfVariants; ++i) {
+			_WaitTimeDifferences.add(new TreeMap<Long, Accumulator>());
+			_TravelTimeDifferences.add(new TreeMap<Long, Accumulator>());
+			_BuildingWaitTimeDifferences[i] = new Accumulator();
+			_BuildingTravelTimeDifferences[i] = new Accumulator();
+			_BuildingWaitTimes[i] = new Accumulator();
+			_BuildingTravelTimes[i] = new Accumulator();
+			_Statistics[i] = new Statistic(_NumberOfFloors, _Configuration.Zones());
+		}
+	}
+
+	// This adds statistics of all variants of one replication
+	private void Add(Statistic[] statistics) {
+		Statistic baseline = statistics[0];
+		for (int i = 0; i < statistics.length; ++i) {
+			Statistic statistic = statistics[i];
+			_BuildingWaitTimes[i].Add(statistic.WaitTimeAverage());
+			_BuildingTravelTimes[i].Add(statistic.TravelTimeAverage());
+			_BuildingWaitTimeDifferences[i].Add(statistic.WaitTimeAverage() - baseline.WaitTimeAverage());
+			_BuildingTravelTimeDifferences[i].Add(statistic.TravelTimeAverage() - baseline.TravelTimeAverage());
+			// All variants have the same people, so they have the same floor pairs
+			for (long pair : statistic.Pairs()) {
+				_WaitTimeDifferences.get(i).computeIfAbsent(pair, key -> new Accumulator())
+						.Add(statistic.WaitTimeAverage(pair) - baseline.WaitTimeAverage(pair));
+				_TravelTimeDifferences.get(i).computeIfAbsent(pair, key -> new Accumulator())
+						.Add(statistic.TravelTimeAverage(pair) - baseline.TravelTimeAverage(pair));
+			}
+			_Statistics[i].Merge(statistic);
+		}
+	}
+
+	// This writes comparison results
+	public void Write(PrintWriter writer) {
+		double confidence = _Configuration.ConfidenceLevel();
+		writer.format("Replications = %d Confidence = %.1f%%%n", _NumberOfSimulations, confidence * 100);
+		for (int i = 0; i < _Variants.length; ++i) {
+			writer.format("Variant %d: %s%s%n", i + 1, _VariantNames[i], i == 0 ? " (baseline)" : "");
+			writer.format("\t People = %d Wait time: Average = %.2f Travel time: Average = %.2f%n",
+					_Statistics[i].NumberOfPeople(), _Statistics[i].WaitTimeAverage(), _Statistics[i].TravelTimeAverage());
+		}
+		Statistic baseline = _Statistics[0];
+		for (int i = 1; i < _Variants.length; ++i) {
+			writer.format("Variant %d - Variant 1%n", i + 1);
+			for (long pair : _WaitTimeDifferences.get(i).keySet()) {
+				writer.format("%s%n", baseline.PairName(pair));
+				Difference(writer, "Wait time", _WaitTimeDifferences.get(i).get(pair), baseline.WaitTimeAverage(pair), confidence);
+				Difference(writer, "Travel time", _TravelTimeDifferences.get(i).get(pair), baseline.TravelTimeAverage(pair), confidence);
+			}
+			writer.format("All floors%n");
+			Difference(writer, "Wait time", _BuildingWaitTimeDifferences[i], baseline.WaitTimeAverage(), confidence);
+			writer.format("\t Wait time: Variance reduction = %.1f%n",
+					VarianceReduction(_BuildingWaitTimes[0], _BuildingWaitTimes[i], _BuildingWaitTimeDifferences[i]));
+			Difference(writer, "Travel time", _BuildingTravelTimeDifferences[i], baseline.TravelTimeAverage(), confidence);
+			writer.format("\t Travel time: Variance reduction = %.1f%n",
+					VarianceReduction(_BuildingTravelTimes[0], _BuildingTravelTimes[i], _BuildingTravelTimeDifferences[i]));
+		}
+	}
+
+	// This writes average difference with its confidence interval, and relative to the baseline average
+	private static void Difference(PrintWriter writer,
+									String name,
+									Accumulator differences,
+									double baselineAverage,
+									double confidence) {
+		double difference = differences.Average();
+		writer.format("\t %s: Difference = %.3f +- %.3f (%+.2f%%)%n",
+				name, difference, differences.HalfWidth(confidence),
+				baselineAverage == 0 ? 0 : difference / baselineAverage * 100);
+	}
+
+	// Variance of difference of independent runs divided by variance of paired difference
+	private static double VarianceReduction(Accumulator baseline,
+											Accumulator variant,
+											Accumulator differences) {
+		return (baseline.SampleVariance() + variant.SampleVariance()) / differences.SampleVariance();
+	}
+
+	// This is a single replication of all variants run by one of the workers
+	private static class PairedReplication implements Callable<Statistic[]> {
+		private Configuration[] _Variants;
+		private int _Replication;
+
+		public PairedReplication(Configuration[] variants,
+									int replication) {
+			_Variants = variants;
+			_Replication = replication;
+		}
+
+		public Statistic[] call() {
+			Statistic[] statistics = new Statistic[_Variants.length];
+			for (int i = 0; i < _Variants.length; ++i) {
+				statistics[i] = MonteCarlo.Replicate(_Variants[i], _Replication);
+			}
+			return statistics;
+		}
+	}
+}
@@ -0,0 +1,759 @@
+// Author: Sayeed Gulmahamad
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+// This contains all simulation settings that can be changed without recompiling
+// Default values are taken from Constants
+// Settings are read from a properties file (--config=file) and from command line arguments (--key=value)
+// Command line arguments override the ones from the file
+// Times are given in seconds and kept in ticks, arrival rate is given in people per second
+// Without master seed, a new one is chosen for every run (it is shown in results, so the run can be repeated)
+
+// Settings with "sweep." prefix are not used directly, they make a parameter sweep instead
+// Their value is a list of values (5,10,20) or a range (2..16 or 2..16/2 for step 2)
+// Sweep runs the simulation for every combination of swept values in the same virtual machine
+
+// Settings with "compare." prefix make a comparison of variants instead (first value of every compared setting makes the first variant and so on)
+// Only settings that do not change the people created can be compared, so all variants see exactly the same people
+
+// With target precision, replications are run until confidence interval half width of wait time is not above it (convergence)
+// Number of simulations is then the minimum, and people or time budget (if given) is the maximum
+
+// With trace file, people are replayed from it instead of being random, so there is only one replication
+// With profile file, people are random with arrival rate and floors that change over time as given in it (see TrafficProfile)
+// With event file, events of every replication are recorded in its own file (event file name followed by replication index)
+// Runs of a sweep and variants of a comparison would write the same files, so events are only recorded for simulation results
+
+// With more than one process, replications are run by worker processes, and every worker uses its own workers (threads)
+// Worker process gets settings of a replication as command line arguments (worker setting marks it as worker)
+
+// With checkpoint file, state of the run is written to it every few seconds, and resume continues from it (with its master seed)
+// Resume without checkpoint file yet starts from the beginning, so the same command can be used for every start
+
+// With metrics, live counters of the run are shown in JMX, and also on a local HTTP port if it is given
+
+// Output format is text (as shown on the console), csv, jsonl (JSON Lines) or binary, only simulation results can have other formats than text
+// Dispatch is pickup time (default) or lookahead (insertion cost), it can be compared since it does not change people
+// With zones, results are kept and shown by pairs of zones instead of pairs of floors (zones are given by their first floors, 1,21,41)
+// With time series file, results are also kept in windows of simulated time and written to it as CSV (only for simulation results)
+public class Configuration {
+	// Setting keys
+	public static final String CONFIG = "config";
+	public static final String FLOORS = "floors";
+	public static final String ELEVATORS = "elevators";
+	public static final String PEOPLE = "people";
+	public static final String SIMULATIONS = "simulations";
+	public static final String WORKERS = "workers";
+	public static final String ENTER_TIME = "enterTime";
+	public static final String LEAVE_TIME = "leaveTime";
+	public static final String FLOOR_TIME = "floorTime";
+	public static final String ARRIVAL_RATE = "arrivalRate";
+	public static final String OUTPUT = "output";
+	public static final String SEED = "seed";
+	public static final String REPLICATION = "replication";
+	public static final String CONFIDENCE = "confidence";
+	public static final String PRECISION = "precision";
+	public static final String PERCENTILE_PRECISION = "percentilePrecision";
+	public static final String PRECISION_PERCENTILE = "precisionPercentile";
+	public static final String MAX_PEOPLE = "maxPeople";
+	public static final String MAX_SECONDS = "maxSeconds";
+	public static final String TRACE = "trace";
+	public static final String PROFILE = "profile";
+	public static final String EVENTS = "events";
+	public static final String PROCESSES = "processes";
+	public static final String WORKER = "worker";
+	public static final String CHECKPOINT = "checkpoint";
+	public static final String CHECKPOINT_SECONDS = "checkpointSeconds";
+	public static final String RESUME = "resume";
+	public static final String METRICS = "metrics";
+	public static final String METRICS_PORT = "metricsPort";
+	public static final String ZONES = "zones";
+	public static final String FORMAT = "format";
+	public static final String DISPATCH = "dispatch";
+	public static final String TIME_SERIES = "timeSeries";
+	public static final String WINDOW = "window";
+	public static final String SWEEP_PREFIX = "sweep.";
+	public static final String COMPARE_PREFIX = "compare.";
+
+	private int _NumberOfFloors = Constants.NUMBER_OF_FLOORS;
+	private int _NumberOfElevators = Constants.NUMBER_OF_ELEVATORS;
+	private int _NumberOfPeople = Constants.NUMBER_OF_PEOPLE;
+	private int _NumberOfSimulations = Constants.NUMBER_OF_SIMULATIONS;
+	private int _NumberOfWorkers = Constants.NUMBER_OF_WORKERS;
+	private long _ElevatorEnterTime = Constants.ELEVATOR_ENTER_TIME;
+	private long _ElevatorLeaveTime = Constants.ELEVATOR_LEAVE_TIME;
+	private long _ElevatorFloorTime = Constants.ELEVATOR_FLOOR_TIME;
+	// Without arrival rate, it is the same as number of floors
+	private double _ArrivalRate = Constants.INVALID_VALUE;
+	private String _OutputFile = "output.txt";
+	private String _OutputFormat = Report.TEXT;
+	private String _Dispatch = DispatchStrategy.PICKUP;
+	private long _MasterSeed = new SplittableRandom().nextLong();
+	// Only this replication is run if it is valid
+	private int _Replication = Constants.INVALID_VALUE;
+	private double _ConfidenceLevel = Constants.CONFIDENCE_LEVEL;
+	// Target half widths (in seconds) of average and percentile of wait time, invalid value if there is no target
+	private double _Precision = Constants.INVALID_VALUE;
+	private double _PercentilePrecision = Constants.INVALID_VALUE;
+	private double _PrecisionPercentile = Constants.PRECISION_PERCENTILE;
+	// Budget of convergence, invalid value if there is no budget
+	private long _MaxPeople = Constants.INVALID_VALUE;
+	private double _MaxSeconds = Constants.INVALID_VALUE;
+	// Trace file with arrivals, random arrivals are used without it
+	private String _TraceFile = null;
+	// Traffic profile, arrival rate is constant and floors are uniform without it
+	private TrafficProfile _Profile = null;
+	// Event file name, events are not recorded without it
+	private String _EventFile = null;
+	private int _NumberOfProcesses = 1;
+	private boolean _IsWorker = false;
+	// Checkpoint file name, checkpoints are not written without it
+	private String _CheckpointFile = null;
+	private double _CheckpointSeconds = Constants.CHECKPOINT_SECONDS;
+	private boolean _IsResume = false;
+	private boolean _IsMetrics = false;
+	// Port of metrics HTTP endpoint, there is no endpoint if it is invalid
+	private int _MetricsPort = Constants.INVALID_VALUE;
+	// First floor of every zone (starting from zero), or null if results are kept by floors
+	private int[] _Zones = null;
+	// Time series file name, time series is not kept without it
+	private String _TimeSeriesFile = null;
+	private long _Window = Constants.TIME_SERIES_WINDOW;
+	// Swept settings in order in which they were given
+	private LinkedHashMap<String, String> _Sweep = new LinkedHashMap<String, String>();
+	// Compared settings in order in which they were given
+	private LinkedHashMap<String, String> _Compare = new LinkedHashMap<String, String>();
+
+	public Configuration() {}
+
+	// This creates configuration from command line arguments
+	public static Configuration Parse(String[] args) throws IOException {
+		Properties arguments = new Properties();
+		for (int i = 0; i < args.length; ++i) {
+			String arg = args[i];
+			int separator = arg.indexOf('=');
+			if (!arg.startsWith("--") || separator < 0) {
+				throw new IllegalArgumentException("Argument " + arg + " is not in --key=value form");
+			}
+			arguments.setProperty(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+		Configuration configuration = new Configuration();
+		if (arguments.containsKey(CONFIG)) {
+			Properties file = new Properties();
+			try (Reader reader = new FileReader(arguments.getProperty(CONFIG))) {
+				file.load(reader);
+			}
+			configuration.SetAll(file);
+		}
+		configuration.SetAll(arguments);
+		configuration.Check();
+		return configuration;
+	}
+
+	public Configuration Copy() {
+		Configuration configuration = new Configuration();
+		configuration._NumberOfFloors = _NumberOfFloors;
+		configuration._NumberOfElevators = _NumberOfElevators;
+		configuration._NumberOfPeople = _NumberOfPeople;
+		configuration._NumberOfSimulations = _NumberOfSimulations;
+		configuration._NumberOfWorkers = _NumberOfWorkers;
+		configuration._ElevatorEnterTime = _ElevatorEnterTime;
+		configuration._ElevatorLeaveTime = _ElevatorLeaveTime;
+		configuration._ElevatorFloorTime = _ElevatorFloorTime;
+		configuration._ArrivalRate = _ArrivalRate;
+		configuration._OutputFile = _OutputFile;
+		configuration._OutputFormat = _OutputFormat;
+		configuration._Dispatch = _Dispatch;
+		configuration._MasterSeed = _MasterSeed;
+		configuration._Replication = _Replication;
+		configuration._ConfidenceLevel = _ConfidenceLevel;
+		configuration._Precision = _Precision;
+		configuration._PercentilePrecision = _PercentilePrecision;
+		configuration._PrecisionPercentile = _PrecisionPercentile;
+		configuration._MaxPeople = _MaxPeople;
+		configuration._MaxSeconds = _MaxSeconds;
+		configuration._TraceFile = _TraceFile;
+		configuration._Profile = _Profile;
+		configuration._EventFile = _EventFile;
+		configuration._NumberOfProcesses = _NumberOfProcesses;
+		configuration._IsWorker = _IsWorker;
+		configuration._CheckpointFile = _CheckpointFile;
+		configuration._CheckpointSeconds = _CheckpointSeconds;
+		configuration._IsResume = _IsResume;
+		configuration._IsMetrics = _IsMetrics;
+		configuration._MetricsPort = _MetricsPort;
+		configuration._Zones = _Zones;
+		configuration._TimeSeriesFile = _TimeSeriesFile;
+		configuration._Window = _Window;
+		configuration._Sweep = new LinkedHashMap<String, String>(_Sweep);
+		configuration._Compare = new LinkedHashMap<String, String>(_Compare);
+		return configuration;
+	}
+
+	private void SetAll(Properties properties) {
+		for (String key : properties.stringPropertyNames()) {
+			Set(key, properties.getProperty(key).trim());
+		}
+	}
+
+	// This returns command line arguments of a worker process that runs replications with these settings
+	// Only settings used by replications are given, and times are given back in seconds
+	public ArrayList<String> WorkerArguments() {
+		ArrayList<String> arguments = new ArrayList<String>();
+		arguments.add(Argument(FLOORS, Integer.toString(_NumberOfFloors)));
+		arguments.add(Argument(ELEVATORS, Integer.toString(_NumberOfElevators)));
+		arguments.add(Argument(PEOPLE, Integer.toString(_NumberOfPeople)));
+		arguments.add(Argument(WORKERS, Integer.toString(_NumberOfWorkers)));
+		arguments.add(Argument(ENTER_TIME, Seconds(_ElevatorEnterTime)));
+		arguments.add(Argument(LEAVE_TIME, Seconds(_ElevatorLeaveTime)));
+		arguments.add(Argument(FLOOR_TIME, Seconds(_ElevatorFloorTime)));
+		arguments.add(Argument(DISPATCH, _Dispatch));
+		if (_ArrivalRate != Constants.INVALID_VALUE) {
+			arguments.add(Argument(ARRIVAL_RATE, Double.toString(_ArrivalRate)));
+		}
+		arguments.add(Argument(SEED, Long.toString(_MasterSeed)));
+		if (_TraceFile != null) {
+			arguments.add(Argument(TRACE, _TraceFile));
+		}
+		if (_Profile != null) {
+			arguments.add(Argument(PROFILE, _Profile.FileName()));
+		}
+		if (_EventFile != null) {
+			arguments.add(Argument(EVENTS, _EventFile));
+		}
+		if (_Zones != null) {
+			arguments.add(Argument(ZONES, ZonesValue()));
+		}
+		if (_TimeSeriesFile != null) {
+			arguments.add(Argument(TIME_SERIES, _TimeSeriesFile));
+			arguments.add(Argument(WINDOW, Seconds(_Window)));
+		}
+		arguments.add(Argument(WORKER, "true"));
+		return arguments;
+	}
+
+	// This returns settings that change results of a run, which must be the same when it is resumed from a checkpoint
+	// Master seed is kept in checkpoint separately
+	public String CheckpointSettings() {
+		String settings = String.join(" ",
+				Argument(FLOORS, Integer.toString(_NumberOfFloors)),
+				Argument(ELEVATORS, Integer.toString(_NumberOfElevators)),
+				Argument(PEOPLE, Integer.toString(_NumberOfPeople)),
+				Argument(ENTER_TIME, Seconds(_ElevatorEnterTime)),
+				Argument(LEAVE_TIME, Seconds(_ElevatorLeaveTime)),
+				Argument(FLOOR_TIME, Seconds(_ElevatorFloorTime)),
+				Argument(ARRIVAL_RATE, Double.toString(ArrivalRate())),
+				Argument(PRECISION_PERCENTILE, Double.toString(_PrecisionPercentile)),
+				Argument(DISPATCH, _Dispatch));
+		if (_TraceFile != null) {
+			settings = settings.concat(" ").concat(Argument(TRACE, _TraceFile));
+		}
+		if (_Profile != null) {
+			settings = settings.concat(" ").concat(Argument(PROFILE, _Profile.FileName()));
+		}
+		if (_Zones != null) {
+			settings = settings.concat(" ").concat(Argument(ZONES, ZonesValue()));
+		}
+		if (_TimeSeriesFile != null) {
+			settings = settings.concat(" ").concat(Argument(WINDOW, Seconds(_Window)));
+		}
+		return settings;
+	}
+
+	// Zones are given back as their first floors starting from 1
+	private String ZonesValue() {
+		String value = "";
+		for (int i = 0; i < _Zones.length; ++i) {
+			value = value.concat(i == 0 ? "" : ",").concat(Integer.toString(_Zones[i] + 1));
+		}
+		return value;
+	}
+	private static String Argument(String key,
+									String value) {
+		return "--" + key + "=" + value;
+	}
+	private static String Seconds(long ticks) {
+		return Double.toString((double)ticks / Constants.TIME_UNIT_CHUNKS);
+	}
+
+	// This sets one setting from its text value
+	public void Set(String key,
+					String value) {
+		try {
+			if (key.startsWith(SWEEP_PREFIX)) {
+				String sweptKey = key.substring(SWEEP_PREFIX.length());
+				// Check that swept setting and all of its values are valid
+				String[] values = SweepValues(value);
+				for (int i = 0; i < values.length; ++i) {
+					Copy().Set(sweptKey, values[i]);
+				}
+				_Sweep.put(sweptKey, value);
+				return;
+			}
+			if (key.startsWith(COMPARE_PREFIX)) {
+				String comparedKey = key.substring(COMPARE_PREFIX.length());
+				if (!IsComparable(comparedKey)) {
+					throw new IllegalArgumentException("Setting " + comparedKey + " can not be compared");
+				}
+				String[] values = SweepValues(value);
+				for (int i = 0; i < values.length; ++i) {
+					Copy().Set(comparedKey, values[i]);
+				}
+				_Compare.put(comparedKey, value);
+				return;
+			}
+			switch (key) {
+			case CONFIG:
+				break;
+			case FLOORS:
+				_NumberOfFloors = Positive(key, Integer.parseInt(value));
+				if (_NumberOfFloors < 2) {
+					throw new IllegalArgumentException("Setting " + key + " must be at least 2");
+				}
+				break;
+			case ELEVATORS:
+				_NumberOfElevators = Positive(key, Integer.parseInt(value));
+				break;
+			case PEOPLE:
+				_NumberOfPeople = Positive(key, Integer.parseInt(value));
+				break;
+			case SIMULATIONS:
+				_NumberOfSimulations = Positive(key, Integer.parseInt(value));
+				break;
+			case WORKERS:
+				_NumberOfWorkers = Positive(key, Integer.parseInt(value));
+				break;
+			case ENTER_TIME:
+				_ElevatorEnterTime = Positive(key, Ticks(value));
+				break;
+			case LEAVE_TIME:
+				_ElevatorLeaveTime = Positive(key, Ticks(value));
+				break;
+			case FLOOR_TIME:
+				_ElevatorFloorTime = Positive(key, Ticks(value));
+				break;
+			case ARRIVAL_RATE:
+				_ArrivalRate = Double.parseDouble(value);
+				if (!(_ArrivalRate > 0)) {
+					throw new IllegalArgumentException("Setting " + key + " must be positive");
+				}
+				break;
+			case OUTPUT:
+				_OutputFile = value;
+				break;
+			case FORMAT:
+				if (!Arrays.asList(Report.FORMATS).contains(value)) {
+					throw new IllegalArgumentException("Setting " + key + " must be one of " + String.join(", ", Report.FORMATS));
+				}
+				_OutputFormat = value;
+				break;
+			case DISPATCH:
+				if (!Arrays.asList(DispatchStrategy.NAMES).contains(value)) {
+					throw new IllegalArgumentException("Setting " + key + " must be one of " + String.join(", ", DispatchStrategy.NAMES));
+				}
+				_Dispatch = value;
+				break;
+			case SEED:
+				_MasterSeed = Long.parseLong(value);
+				break;
+			case REPLICATION:
+				_Replication = Integer.parseInt(value);
+				if (_Replication < 0) {
+					throw new IllegalArgumentException("Setting " + key + " must not be negative");
+				}
+				break;
+			case CONFIDENCE:
+				_ConfidenceLevel = Double.parseDouble(value);
+				if (!(_ConfidenceLevel > 0 && _ConfidenceLevel < 1)) {
+					throw new IllegalArgumentException("Setting " + key + " must be between 0 and 1");
+				}
+				break;
+			case PRECISION:
+				_Precision = Positive(key, Double.parseDouble(value));
+				break;
+			case PERCENTILE_PRECISION:
+				_PercentilePrecision = Positive(key, Double.parseDouble(value));
+				break;
+			case PRECISION_PERCENTILE:
+				_PrecisionPercentile = Double.parseDouble(value);
+				if (!(_PrecisionPercentile > 0 && _PrecisionPercentile < 100)) {
+					throw new IllegalArgumentException("Setting " + key + " must be between 0 and 100");
+				}
+				break;
+			case MAX_PEOPLE:
+				_MaxPeople = Positive(key, Long.parseLong(value));
+				break;
+			case MAX_SECONDS:
+				_MaxSeconds = Positive(key, Double.parseDouble(value));
+				break;
+			case TRACE:
+				_TraceFile = value;
+				break;
+			case PROFILE:
+				try {
+					_Profile = TrafficProfile.Read(value);
+				}
+				catch (IOException exception) {
+					throw new IllegalArgumentException("Profile " + value + " can not be read: " + exception.getMessage());
+				}
+				break;
+			case EVENTS:
+				_EventFile = value;
+				break;
+			case PROCESSES:
+				_NumberOfProcesses = Positive(key, Integer.parseInt(value));
+				break;
+			case WORKER:
+				_IsWorker = Boolean.parseBoolean(value);
+				break;
+			case CHECKPOINT:
+				_CheckpointFile = value;
+				break;
+			case CHECKPOINT_SECONDS:
+				_CheckpointSeconds = Positive(key, Double.parseDouble(value));
+				break;
+			case RESUME:
+				_IsResume = Boolean.parseBoolean(value);
+				break;
+			case ZONES:
+				_Zones = Zones(key, value);
+				break;
+			case TIME_SERIES:
+				_TimeSeriesFile = value;
+				break;
+			case WINDOW:
+				_Window = Positive(key, Ticks(value));
+				break;
+			case METRICS:
+				_IsMetrics = Boolean.parseBoolean(value);
+				break;
+			case METRICS_PORT:
+				_MetricsPort = Positive(key, Integer.parseInt(value));
+				if (_MetricsPort > 65535) {
+					throw new IllegalArgumentException("Setting " + key + " must be a port number");
+				}
+				_IsMetrics = true;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown setting " + key);
+			}
+		}
+		catch (NumberFormatException exception) {
+			throw new IllegalArgumentException("Setting " + key + " has invalid value " + value);
+		}
+	}
+
+	// Zones are given by their first floors in increasing order, and the first zone starts at the first floor
+	private static int[] Zones(String key,
+								String value) {
+		String[] values = value.split(",");
+		int[] zones = new int[values.length];
+		for (int i = 0; i < values.length; ++i) {
+			zones[i] = Integer.parseInt(values[i].trim()) - 1;
+			if (i == 0 ? zones[i] != 0 : zones[i] <= zones[i - 1]) {
+				throw new IllegalArgumentException("Setting " + key + " must be increasing first floors of zones, starting with 1");
+			}
+		}
+		return zones;
+	}
+
+	// Only settings that do not change people created (their arrival times and floors) can be compared
+	private static boolean IsComparable(String key) {
+		switch (key) {
+		case ELEVATORS:
+		case ENTER_TIME:
+		case LEAVE_TIME:
+		case FLOOR_TIME:
+		case DISPATCH:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	// This checks settings that depend on each other, once all of them are set
+	private void Check() throws IOException {
+		if (IsConvergence() && (_Replication != Constants.INVALID_VALUE || _TraceFile != null)) {
+			throw new IllegalArgumentException("Precision can not be targeted for a single replication");
+		}
+		if (_NumberOfProcesses > 1 && (IsConvergence() || !_Compare.isEmpty())) {
+			throw new IllegalArgumentException("Worker processes can only run all simulations or a sweep");
+		}
+		if (_CheckpointFile != null) {
+			if (!_Sweep.isEmpty() || !_Compare.isEmpty() || _Replication != Constants.INVALID_VALUE) {
+				throw new IllegalArgumentException("Checkpoint can only be used when all simulations are run");
+			}
+			// Master seed of the checkpoint is used, so the rest of replications gets the same random numbers
+			if (_IsResume && Files.exists(Paths.get(_CheckpointFile))) {
+				Checkpoint checkpoint = Checkpoint.Read(_CheckpointFile);
+				_MasterSeed = checkpoint.MasterSeed();
+				checkpoint.Check(this);
+			}
+		} else if (_IsResume) {
+			throw new IllegalArgumentException("Resume needs a checkpoint file");
+		}
+		if (!_OutputFormat.equals(Report.TEXT) && (!_Sweep.isEmpty() || !_Compare.isEmpty())) {
+			throw new IllegalArgumentException("Only simulation results can be written as " + _OutputFormat);
+		}
+		if (_EventFile != null && (!_Sweep.isEmpty() || !_Compare.isEmpty())) {
+			throw new IllegalArgumentException("Events can only be recorded for simulation results");
+		}
+		if (_TimeSeriesFile != null && (!_Sweep.isEmpty() || !_Compare.isEmpty())) {
+			throw new IllegalArgumentException("Time series can only be kept for simulation results");
+		}
+		if (_Zones != null && _Zones[_Zones.length - 1] >= MinimumFloors()) {
+			throw new IllegalArgumentException("Zone starts above the top floor");
+		}
+		if (_Profile != null) {
+			if (_TraceFile != null) {
+				throw new IllegalArgumentException("Profile and trace can not be used together");
+			}
+			if (_ArrivalRate != Constants.INVALID_VALUE || _Sweep.containsKey(ARRIVAL_RATE)) {
+				throw new IllegalArgumentException("Arrival rate is given by the profile");
+			}
+			int numberOfFloors = MinimumFloors();
+			if (_Profile.NumberOfFloors() > numberOfFloors) {
+				throw new IllegalArgumentException("Profile has " + _Profile.NumberOfFloors() + " floors, but the building has only " + numberOfFloors);
+			}
+			_Profile.Tables(numberOfFloors);
+		}
+		if (_TraceFile != null) {
+			if (!_Compare.isEmpty()) {
+				throw new IllegalArgumentException("Trace can not be used in comparison");
+			}
+			int traceFloors = TraceArrivals.NumberOfFloors(_TraceFile);
+			int numberOfFloors = MinimumFloors();
+			if (traceFloors > numberOfFloors) {
+				throw new IllegalArgumentException("Trace has " + traceFloors + " floors, but the building has only " + numberOfFloors);
+			}
+		}
+		if (_Compare.isEmpty()) {
+			return;
+		}
+		if (IsConvergence()) {
+			throw new IllegalArgumentException("Precision can not be targeted in comparison");
+		}
+		if (!_Sweep.isEmpty()) {
+			throw new IllegalArgumentException("Sweep and comparison can not be used together");
+		}
+		if (_Replication != Constants.INVALID_VALUE || _NumberOfSimulations < 2) {
+			throw new IllegalArgumentException("Comparison needs at least 2 simulations");
+		}
+		int count = Constants.INVALID_VALUE;
+		for (String value : _Compare.values()) {
+			int values = SweepValues(value).length;
+			if (count != Constants.INVALID_VALUE && count != values) {
+				throw new IllegalArgumentException("All compared settings must have the same number of values");
+			}
+			count = values;
+		}
+		if (count < 2) {
+			throw new IllegalArgumentException("Comparison needs at least 2 variants");
+		}
+	}
+
+	// This returns number of floors, or the lowest one if it is swept
+	private int MinimumFloors() {
+		int numberOfFloors = _NumberOfFloors;
+		if (_Sweep.containsKey(FLOORS)) {
+			String[] values = SweepValues(_Sweep.get(FLOORS));
+			for (int i = 0; i < values.length; ++i) {
+				numberOfFloors = Math.min(numberOfFloors, Integer.parseInt(values[i]));
+			}
+		}
+		return numberOfFloors;
+	}
+
+	private static int Positive(String key,
+								int value) {
+		if (value <= 0) {
+			throw new IllegalArgumentException("Setting " + key + " must be positive");
+		}
+		return value;
+	}
+	private static long Positive(String key,
+									long value) {
+		if (value <= 0) {
+			throw new IllegalArgumentException("Setting " + key + " must be positive");
+		}
+		return value;
+	}
+	private static double Positive(String key,
+									double value) {
+		if (!(value > 0)) {
+			throw new IllegalArgumentException("Setting " + key + " must be positive");
+		}
+		return value;
+	}
+	// Time in seconds is converted to whole ticks
+	private static long Ticks(String seconds) {
+		return Math.round(Double.parseDouble(seconds) * Constants.TIME_UNIT_CHUNKS);
+	}
+
+	// This returns all values of a swept setting
+	// Value is a comma separated list or a range "first..last" with optional "/step"
+	public static String[] SweepValues(String value) {
+		int range = value.indexOf("..");
+		if (range < 0) {
+			String[] values = value.split(",");
+			for (int i = 0; i < values.length; ++i) {
+				values[i] = values[i].trim();
+			}
+			return values;
+		}
+		int step = value.indexOf('/', range);
+		double first = Double.parseDouble(value.substring(0, range).trim());
+		double last = Double.parseDouble(value.substring(range + 2, step < 0 ? value.length() : step).trim());
+		double stepValue = step < 0 ? 1 : Double.parseDouble(value.substring(step + 1).trim());
+		if (!(stepValue > 0) || last < first) {
+			throw new IllegalArgumentException("Sweep range " + value + " is invalid");
+		}
+		int count = (int)Math.floor((last - first) / stepValue + 1e-9) + 1;
+		String[] values = new String[count];
+		for (int i = 0; i < count; ++i) {
+			double number = first + i * stepValue;
+			values[i] = number == Math.rint(number) ? Long.toString((long)number) : Double.toString(number);
+		}
+		return values;
+	}
+
+	public int NumberOfFloors() {
+		return _NumberOfFloors;
+	}
+	public int NumberOfElevators() {
+		return _NumberOfElevators;
+	}
+	public int NumberOfPeople() {
+		return _NumberOfPeople;
+	}
+	public int NumberOfSimulations() {
+		return _NumberOfSimulations;
+	}
+	public int NumberOfWorkers() {
+		return _NumberOfWorkers;
+	}
+	public long ElevatorEnterTime() {
+		return _ElevatorEnterTime;
+	}
+	public long ElevatorLeaveTime() {
+		return _ElevatorLeaveTime;
+	}
+	public long ElevatorFloorTime() {
+		return _ElevatorFloorTime;
+	}
+	public double ArrivalRate() {
+		return _ArrivalRate == Constants.INVALID_VALUE ? _NumberOfFloors : _ArrivalRate;
+	}
+	public String OutputFile() {
+		return _OutputFile;
+	}
+	public String OutputFormat() {
+		return _OutputFormat;
+	}
+	// Dispatch strategy name
+	public String Dispatch() {
+		return _Dispatch;
+	}
+	public long MasterSeed() {
+		return _MasterSeed;
+	}
+	// Index of the only replication to run, or invalid value when all of them are run
+	public int Replication() {
+		return _Replication;
+	}
+	public double ConfidenceLevel() {
+		return _ConfidenceLevel;
+	}
+	public double Precision() {
+		return _Precision;
+	}
+	public double PercentilePrecision() {
+		return _PercentilePrecision;
+	}
+	public double PrecisionPercentile() {
+		return _PrecisionPercentile;
+	}
+	public long MaxPeople() {
+		return _MaxPeople;
+	}
+	public double MaxSeconds() {
+		return _MaxSeconds;
+	}
+	// Trace file with arrivals, or null for random arrivals
+	public String TraceFile() {
+		return _TraceFile;
+	}
+	// Traffic profile, or null for constant arrival rate and uniform floors
+	public TrafficProfile Profile() {
+		return _Profile;
+	}
+	// Event file name, or null if events are not recorded
+	public String EventFile() {
+		return _EventFile;
+	}
+	public int NumberOfProcesses() {
+		return _NumberOfProcesses;
+	}
+	// Worker process only runs replications it gets from its coordinator
+	public boolean IsWorker() {
+		return _IsWorker;
+	}
+	// Checkpoint file name, or null if checkpoints are not written
+	public String CheckpointFile() {
+		return _CheckpointFile;
+	}
+	// Time between checkpoints in seconds
+	public double CheckpointSeconds() {
+		return _CheckpointSeconds;
+	}
+	// Run continues from its checkpoint if there is one
+	public boolean IsResume() {
+		return _IsResume;
+	}
+	// First floor of every zone (starting from zero), or null if results are kept by floors
+	public int[] Zones() {
+		return _Zones;
+	}
+	// Time series file name, or null if there is no time series
+	public String TimeSeriesFile() {
+		return _TimeSeriesFile;
+	}
+	// Window of time series in ticks
+	public long Window() {
+		return _Window;
+	}
+	public boolean IsMetrics() {
+		return _IsMetrics;
+	}
+	// Port of metrics HTTP endpoint, or invalid value if there is none
+	public int MetricsPort() {
+		return _MetricsPort;
+	}
+	// Replications are run until target precision is reached
+	public boolean IsConvergence() {
+		return _Precision != Constants.INVALID_VALUE || _PercentilePrecision != Constants.INVALID_VALUE;
+	}
+	public boolean IsSweep() {
+		return !_Sweep.isEmpty();
+	}
+	// Swept settings and their values as given
+	public Map<String, String> Sweep() {
+		return _Sweep;
+	}
+	public boolean IsComparison() {
+		return !_Compare.isEmpty();
+	}
+	// Compared settings and their values as given
+	public Map<String, String> Compare() {
+		return _Compare;
+	}
+}
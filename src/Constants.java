@@ -1,20 +1,34 @@
-// Author: Sayeed Gulmahamad
-// This contains all simulator constants
-public class Constants {
-	// General constants
-	public static final int INVALID_VALUE = -1;
-	public static final float INVALID_TIME = Integer.MAX_VALUE;
-	// Because of float's unpredictable behavior (because it is a real number), time has a fixed minimum unit
-	public static final int TIME_UNIT_CHUNKS = 100;
-
-	// Elevator constants
-	public static final float ELEVATOR_ENTER_TIME = 1 * TIME_UNIT_CHUNKS;
-	public static final float ELEVATOR_LEAVE_TIME = 1 * TIME_UNIT_CHUNKS;
-	public static final float ELEVATOR_FLOOR_TIME = 2 * TIME_UNIT_CHUNKS;
-
-	// Simulation constants
-	public static final int NUMBER_OF_FLOORS = 10;
-	public static final int NUMBER_OF_ELEVATORS = 4;
-	public static final int NUMBER_OF_PEOPLE = 500000;
-	public static final int NUMBER_OF_SIMULATIONS = 2;
-}
+// Author: Sayeed Gulmahamad
+// This contains all simulator constants
+public class Constants {
+	// General constants
+	public static final int INVALID_VALUE = -1;
+	public static final long INVALID_TIME = Long.MAX_VALUE;
+	// Time is counted in whole ticks so all time calculations are exact, one second has this many ticks
+	public static final int TIME_UNIT_CHUNKS = 100;
+
+	// Elevator constants
+	public static final long ELEVATOR_ENTER_TIME = 1 * TIME_UNIT_CHUNKS;
+	public static final long ELEVATOR_LEAVE_TIME = 1 * TIME_UNIT_CHUNKS;
+	public static final long ELEVATOR_FLOOR_TIME = 2 * TIME_UNIT_CHUNKS;
+
+	// Simulation constants
+	public static final int NUMBER_OF_FLOORS = 10;
+	public static final int NUMBER_OF_ELEVATORS = 4;
+	public static final int NUMBER_OF_PEOPLE = 500000;
+	public static final int NUMBER_OF_SIMULATIONS = 2;
+	// Replications are run in parallel by this many workers
+	public static final int NUMBER_OF_WORKERS = Runtime.getRuntime().availableProcessors();
+	// Worker process that dies is started again at most this many times
+	public static final int MAX_WORKER_RESTARTS = 3;
+	// Window of time series in ticks
+	public static final long TIME_SERIES_WINDOW = 300 * TIME_UNIT_CHUNKS;
+	// Time between checkpoints in seconds
+	public static final double CHECKPOINT_SECONDS = 60;
+	// Confidence level of confidence intervals
+	public static final double CONFIDENCE_LEVEL = 0.95;
+	// Percentile of wait time whose precision can be targeted
+	public static final double PRECISION_PERCENTILE = 95;
+	// Replications run before precision is checked, so a few close values can not stop the simulation
+	public static final int MINIMUM_CONVERGENCE_SIMULATIONS = 5;
+}
@@ -0,0 +1,151 @@
+// Author: Sayeed Gulmahamad
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// This runs replications in worker processes on the same machine and collects their statistic snapshots
+// Replications are dealt to processes in turn (process i gets replications i, i + N, i + 2N...), so they finish in about the same order
+// Random generators of a replication are made from master seed and replication index, so a share of replications is also a share of seeds
+// Every process has a reader thread that passes snapshots to the coordinator as they come
+// If a process dies, a new one is started for replications of its share that did not come yet (a few times at most)
+// Snapshots are taken in order of replication index, so the merged result does not depend on processes
+public class Coordinator implements AutoCloseable {
+	// Snapshot of a replication, or end of a process if statistic is null
+	private static class Result {
+		private int _Slot;
+		private int _Replication;
+		private Statistic _Statistic;
+
+		public Result(int slot,
+						int replication,
+						Statistic statistic) {
+			_Slot = slot;
+			_Replication = replication;
+			_Statistic = statistic;
+		}
+	}
+
+	// This is one of the processes, its share of replications and the ones that already came
+	private class Slot {
+		private int _Index;
+		private ArrayList<Integer> _Replications = new ArrayList<Integer>();
+		private HashMap<Integer, Boolean> _Received = new HashMap<Integer, Boolean>();
+		private int _Restarts = 0;
+		private Process _Process;
+
+		public Slot(int index) {
+			_Index = index;
+		}
+
+		// Starts a process for replications of the share that did not come yet
+		public void Start() throws IOException {
+			ArrayList<Integer> replications = new ArrayList<Integer>();
+			for (int i = 0; i < _Replications.size(); ++i) {
+				if (!_Received.containsKey(_Replications.get(i))) {
+					replications.add(_Replications.get(i));
+				}
+			}
+			ArrayList<String> command = new ArrayList<String>();
+			command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+			command.add("-cp");
+			command.add(System.getProperty("java.class.path"));
+			command.add("Main");
+			command.addAll(_Configuration.WorkerArguments());
+			_Process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(_Process.getOutputStream()))) {
+				output.writeInt(replications.size());
+				for (int i = 0; i < replications.size(); ++i) {
+					output.writeInt(replications.get(i));
+				}
+			}
+			Process process = _Process;
+			Thread reader = new Thread(() -> Read(process), "Coordinator-" + _Index);
+			reader.setDaemon(true);
+			reader.start();
+		}
+
+		// Reads snapshots until the end, and tells coordinator that the process ended in any case
+		private void Read(Process process) {
+			try (DataInputStream input = new DataInputStream(new BufferedInputStream(process.getInputStream()))) {
+				if (input.readInt() != Worker.MAGIC) {
+					throw new IOException("Worker process did not start correctly");
+				}
+				int replication;
+				while ((replication = input.readInt()) != Worker.END) {
+					_Results.add(new Result(_Index, replication, Statistic.Read(input)));
+				}
+			}
+			catch (IOException exception) {
+				System.out.format("WARNING: Worker process %d failed: %s%n", _Index, exception.getMessage());
+			}
+			_Results.add(new Result(_Index, Constants.INVALID_VALUE, null));
+		}
+
+		public boolean IsFinished() {
+			return _Received.size() == _Replications.size();
+		}
+	}
+
+	private Configuration _Configuration;
+	private Slot[] _Slots;
+	private BlockingQueue<Result> _Results = new LinkedBlockingQueue<Result>();
+	// Snapshots that came before their turn
+	private HashMap<Integer, Statistic> _Pending = new HashMap<Integer, Statistic>();
+
+	// Starts processes for given replications
+	public Coordinator(Configuration configuration,
+						int[] replications) throws IOException {
+		_Configuration = configuration;
+		_Slots = new Slot[Math.min(configuration.NumberOfProcesses(), replications.length)];
+		for (int i = 0; i < _Slots.length; ++i) {
+			_Slots[i] = new Slot(i);
+		}
+		for (int i = 0; i < replications.length; ++i) {
+			_Slots[i % _Slots.length]._Replications.add(replications[i]);
+		}
+		for (int i = 0; i < _Slots.length; ++i) {
+			_Slots[i].Start();
+		}
+	}
+
+	// Waits for snapshot of given replication and returns it
+	public Statistic Take(int replication) throws IOException, InterruptedException {
+		while (!_Pending.containsKey(replication)) {
+			Result result = _Results.take();
+			Slot slot = _Slots[result._Slot];
+			if (result._Statistic != null) {
+				slot._Received.put(result._Replication, true);
+				_Pending.put(result._Replication, result._Statistic);
+				continue;
+			}
+			// Process ended, it is started again if some of its replications did not come
+			int exitCode = slot._Process.waitFor();
+			if (slot.IsFinished()) {
+				continue;
+			}
+			if (slot._Restarts == Constants.MAX_WORKER_RESTARTS) {
+				throw new IOException("Worker process " + slot._Index + " failed " + (slot._Restarts + 1) + " times");
+			}
+			++slot._Restarts;
+			System.out.format("Worker process %d ended with code %d, starting it again%n", slot._Index, exitCode);
+			slot.Start();
+		}
+		return _Pending.remove(replication);
+	}
+
+	// Stops processes that are still running
+	public void close() {
+		for (int i = 0; i < _Slots.length; ++i) {
+			if (_Slots[i]._Process != null) {
+				_Slots[i]._Process.destroy();
+			}
+		}
+	}
+}
@@ -0,0 +1,69 @@
+// Author: Sayeed Gulmahamad
+import java.io.IOException;
+import java.io.Writer;
+
+// This writes results as CSV with a header line and one line for every row
+// Summary is written first as comment lines (starting with #) of key=value
+// Row of all floors has "all" as its type and no floors, other rows have "pair"
+public class CsvReport implements ReportWriter {
+	private Writer _Writer;
+
+	public CsvReport(Writer writer) {
+		_Writer = writer;
+	}
+
+	public void Summary(long masterSeed,
+						int replication,
+						long replications,
+						String stopReason,
+						double[] intervals) throws IOException {
+		_Writer.write("# masterSeed=" + masterSeed + "\n");
+		if (replication != Constants.INVALID_VALUE) {
+			_Writer.write("# replication=" + replication + "\n");
+		}
+		_Writer.write("# replications=" + replications + "\n");
+		if (stopReason != null) {
+			_Writer.write("# stopped=" + stopReason + "\n");
+		}
+		if (intervals != null) {
+			_Writer.write("# waitTimeAverage=" + intervals[0] + "\n");
+			_Writer.write("# waitTimeAverageHalfWidth=" + intervals[1] + "\n");
+			_Writer.write("# waitTimePercentile=" + intervals[2] + "\n");
+			_Writer.write("# waitTimePercentileHalfWidth=" + intervals[3] + "\n");
+		}
+		_Writer.write("type,name,enterFirstFloor,enterLastFloor,leaveFirstFloor,leaveLastFloor");
+		for (String column : Report.COLUMNS) {
+			_Writer.write(",");
+			_Writer.write(column);
+		}
+		_Writer.write("\n");
+	}
+
+	public void Row(String name,
+					int[] floors,
+					double[] values) throws IOException {
+		_Writer.write(floors == null ? "all" : "pair");
+		_Writer.write(",\"");
+		_Writer.write(name.replace("\"", "\"\""));
+		_Writer.write("\"");
+		for (int i = 0; i < 4; ++i) {
+			_Writer.write(",");
+			if (floors != null) {
+				_Writer.write(Integer.toString(floors[i]));
+			}
+		}
+		_Writer.write(",");
+		_Writer.write(Long.toString((long)values[Report.PEOPLE]));
+		for (int i = Report.PEOPLE + 1; i < values.length; ++i) {
+			_Writer.write(",");
+			if (Double.isFinite(values[i])) {
+				_Writer.write(Report.Number(values[i]));
+			}
+		}
+		_Writer.write("\n");
+	}
+
+	public void close() throws IOException {
+		_Writer.close();
+	}
+}
@@ -0,0 +1,28 @@
+// Author: Sayeed Gulmahamad
+import java.util.ArrayList;
+
+// This decides which elevator collects people waiting on a floor
+// People waiting on the same floor to go in the same direction are always collected by the same elevator
+// Algorithm asks the strategy once for every such group of pending people on every event
+// Strategy can keep its own data between events, every replication has its own strategy
+// Strategies are pickup time (PickupTimeDispatcher, default) and look-ahead insertion cost (LookAheadDispatcher)
+public interface DispatchStrategy {
+	String PICKUP = "pickup";
+	String LOOK_AHEAD = "lookahead";
+	String[] NAMES = { PICKUP, LOOK_AHEAD };
+
+	// Returns a new strategy of the kind chosen in configuration
+	static DispatchStrategy Create(Configuration configuration) {
+		if (configuration.Dispatch().equals(LOOK_AHEAD)) {
+			return new LookAheadDispatcher(configuration);
+		}
+		return new PickupTimeDispatcher(configuration);
+	}
+
+	// Returns elevator that should collect people waiting on floor to go in direction at given time
+	// If no elevator can collect them now, null is returned and people stay pending until next event
+	Elevator Choose(ArrayList<Elevator> elevators,
+					int floor,
+					int direction,
+					long time);
+}
@@ -1,228 +1,388 @@
-//Author: Sayeed Gulmahamad
-import java.util.ArrayList;
-
-// This represents a single elevator taking people from one floor to another
-// It is an active component in the Elevator-Person relationship processed by the algorithm
-
-// The elevator keeps track of which floor it is on and in which direction it is moving
-// Floor is a float because an event occurs while elevator is moving in most occasions
-// Direction can be -1, 0 or 1 if it is moving down, not moving or moving up respectively
-// Elevator also has a state and all states and their transitions are described in enum
-// States are used for various getters checks and possible transitions to other states
-
-// Another thing elevator keeps track of are the state updates and time when it happens
-
-// Elevator also keeps track of people it carries and of ones that are waiting for it
-// People that are traveling are sorted so the ones leaving first are on first positions
-// People that are waiting are sorted so the ones entering first are on first positions
-public class Elevator {
-	public static final float SPEED = 1 / Constants.ELEVATOR_FLOOR_TIME;
-
-	private float _Floor = 0;
-	private int _Direction = 0;
-	private ElevatorState _State = ElevatorState.Idle;
-	private float _LastStateChangeTime = 0;
-
-	private ArrayList<Person> _PeopleWaiting = new ArrayList<Person>();
-	private ArrayList<Person> _PeopleTraveling = new ArrayList<Person>();
-
-	public Elevator() {}
-
-	public float Floor() {
-		return _Floor;
-	}
-	public int Direction() {
-		return _Direction;
-	}
-
-	// This returns if elevator is stopped or not
-	public boolean IsStopped() {
-		return _State == ElevatorState.Idle;
-	}
-	// This returns if an elevator can be stopped for anyone
-	// The elevator can stop for a person with same enter floor and direction as first waiting person
-	// To check if an elevator can be stopped without special case, pass null as parameter
-	public boolean CanStop(Person person) {
-		boolean isStoppable = _State != ElevatorState.MovingUnstoppable;
-		if (person == null) {
-			return isStoppable;
-		}
-		boolean floorAndDirectionMatch = false;
-		if (_PeopleWaiting.size() > 0) {
-			floorAndDirectionMatch = _PeopleWaiting.get(0).EnterFloor() == person.EnterFloor() &&
-										_PeopleWaiting.get(0).Direction() == person.Direction();
-		}
-		return isStoppable || floorAndDirectionMatch;
-	}
-	// This returns which floor is the first one on which the elevator will stop
-	public int FirstStopFloor() {
-		// If elevator is empty and not moving it is already stopped
-		if (_State == ElevatorState.Idle) {
-			return Constants.INVALID_VALUE;
-		}
-		else {
-			return Methods.StopFloor(_PeopleWaiting,
-										_PeopleTraveling,
-										_Floor,
-										true);
-		}
-	}
-	// This returns which floor is the last one on which elevator will stop
-	// When talking about states, this is floor on which it will be idle
-	public int LastStopFloor() {
-		// If elevator is empty and not moving it is already stopped
-		if (_State == ElevatorState.Idle) {
-			return Constants.INVALID_VALUE;
-		}
-		else {
-			return Methods.StopFloor(_PeopleWaiting,
-										_PeopleTraveling,
-										_Floor,
-										false);
-		}
-	}
-	public boolean IsNextPersonWaitingOnFloor(int floor) {
-		return !_PeopleWaiting.isEmpty() && _PeopleWaiting.get(0).EnterFloor() == floor;
-	}
-	public boolean IsNextPersonTravelingToFloor(int floor) {
-		return !_PeopleTraveling.isEmpty() && _PeopleTraveling.get(0).LeaveFloor() == floor;
-	}
-
-	// This returns all stop floors for people that are waiting
-	public ArrayList<Integer> WaitStopFloors() {
-		return Methods.DifferentFloors(_PeopleWaiting,
-										true);
-	}
-	// This returns all stop floors for people that are traveling
-	public ArrayList<Integer> TravelStopFloors() {
-		return Methods.DifferentFloors(_PeopleTraveling,
-										false);
-	}
-	// This returns all stop floors for people that are waiting before given person enter floor
-	public ArrayList<Integer> WaitStopFloorsBeforeEnter(Person person) {
-		return Methods.FilterDifferentFloors(WaitStopFloors(),
-												_Direction == 1,
-												person.EnterFloor());
-	}
-	// This returns all stop floors for people that are traveling before given person enter floor
-	public ArrayList<Integer> TravelStopFloorsBeforeEnter(Person person) {
-		return Methods.FilterDifferentFloors(TravelStopFloors(),
-												_Direction == 1,
-												person.EnterFloor());
-	}
-	// This adds person in people waiting
-	// Time is passed when going from Idle to MovingUnstoppable
-	public void AddWaitingPerson(Person person,
-									float time) {
-		Methods.AddPersonSorted(_PeopleWaiting,
-								person,
-								true,
-								_Direction == 1);
-		// Since idle state has to be changed instantly, do it here
-		// It is needed instantly because of elevator filtering
-		if (_State == ElevatorState.Idle) {
-			_State = ElevatorState.MovingUnstoppable;
-			_Direction = _Floor > person.EnterFloor() ? -1 : 1;
-			_LastStateChangeTime = time;
-		}
-	}
-	// This adds person in people traveling
-	public void AddTravelingPerson(Person person,
-									float time) {
-		Methods.AddPersonSorted(_PeopleTraveling,
-								person,
-								false,
-								_Direction == 1);
-		person.EnterElevator(time);
-	}
-
-	// This updates the elevator states through transitions
-	public void Update(float lastTime,
-						float deltaTime) {
-		switch (_State) {
-		// Idle has only transition to MovingUnstoppable which is done in AddWaitingPerson
-		case Idle:
-			break;
-		// MovingUnstoppable has only transition to PeopleEntering
-		case MovingUnstoppable:
-			_Floor += _Direction * deltaTime * SPEED;
-			if (_Floor == FirstStopFloor()) {
-				_State = ElevatorState.PeopleEntering;
-				_LastStateChangeTime = lastTime + deltaTime;
-			}
-			break;
-		// PeopleEntering has only transition to MovingStoppable
-		// Check if enough time has passed for people to finish entering
-		case PeopleEntering:
-			if (lastTime + deltaTime - _LastStateChangeTime == Constants.ELEVATOR_ENTER_TIME) {
-				while (!_PeopleWaiting.isEmpty() &&
-						_PeopleWaiting.get(0).EnterFloor() == _Floor) {
-					AddTravelingPerson(_PeopleWaiting.remove(0), _LastStateChangeTime);
-				}
-				_State = ElevatorState.MovingStoppable;
-				_Direction = _Floor > FirstStopFloor() ? -1 : 1;
-				_LastStateChangeTime = lastTime + deltaTime;
-			}
-			break;
-		// MovingStoppable is stopped for two reasons: people entering and people leaving
-		// When stopping floor is reached, make transition to one of possible states
-		case MovingStoppable:
-			_Floor += _Direction * deltaTime * SPEED;
-			if (_Floor == FirstStopFloor()) {
-				if (IsNextPersonWaitingOnFloor(FirstStopFloor())) {
-					_State = ElevatorState.PeopleEntering;
-					_LastStateChangeTime = lastTime + deltaTime;
-				}
-				else if (IsNextPersonTravelingToFloor(FirstStopFloor())) {
-					_State = ElevatorState.PeopleLeaving;
-					_LastStateChangeTime = lastTime + deltaTime;
-				}
-			}
-			break;
-		// After people leave, two transitions are possible:
-		// If there are no more people in elevator and nobody is waiting, it becomes idle
-		// If someone is waiting on that same floor, it goes to PeopleEntering state
-		case PeopleLeaving:
-			if (lastTime + deltaTime - _LastStateChangeTime == Constants.ELEVATOR_LEAVE_TIME) {
-				while (!_PeopleTraveling.isEmpty() &&
-						_PeopleTraveling.get(0).LeaveFloor() == _Floor) {
-					_PeopleTraveling.remove(0).LeaveElevator(lastTime + deltaTime);
-				}
-				if (_PeopleWaiting.isEmpty() && _PeopleTraveling.isEmpty()) {
-					_State = ElevatorState.Idle;
-					_LastStateChangeTime = lastTime + deltaTime;
-				}
-				else if (IsNextPersonWaitingOnFloor(Math.round(_Floor))) {
-					_State = ElevatorState.PeopleEntering;
-					_LastStateChangeTime = lastTime + deltaTime;
-				} else if (!IsNextPersonWaitingOnFloor(Math.round(_Floor)) &&
-							FirstStopFloor() != Constants.INVALID_VALUE) {
-					_State = ElevatorState.MovingStoppable;
-					_Direction = _Floor > FirstStopFloor() ? -1 : 1;
-					_LastStateChangeTime = lastTime + deltaTime;
-				}
-			}
-			break;
-		}
-	}
-
-	// This returns time to next elevator event (state transition)
-	public float DeltaTime(float time) {
-		switch (_State) {
-		// Idle has invalid deltaTime
-		case Idle:
-			return Constants.INVALID_TIME;
-		// If the elevator is moving, calculate the time needed for it to stop next time
-		case MovingUnstoppable:
-		case MovingStoppable:
-			return Math.abs(FirstStopFloor() - _Floor) * Constants.ELEVATOR_FLOOR_TIME;
-		// If people are entering, calculate how much longer will they be entering
-		case PeopleEntering:
-			return Constants.ELEVATOR_ENTER_TIME - (time - _LastStateChangeTime);
-		// If people are leaving, calculate how much longer will they be leaving
-		case PeopleLeaving:
-			return Constants.ELEVATOR_LEAVE_TIME - (time - _LastStateChangeTime);
-		}
-		return Constants.INVALID_TIME;
-	}
-}
+//Author: Sayeed Gulmahamad
+// This represents a single elevator taking people from one floor to another
+// It is an active component in the Elevator-Person relationship processed by the algorithm
+
+// The elevator keeps track of which floor it is on and in which direction it is moving
+// An event occurs while elevator is moving in most occasions, so floor is kept as position in fixed point
+// Position is floor multiplied by floor time, so a moving elevator moves exactly one position per tick
+// Direction can be -1, 0 or 1 if it is moving down, not moving or moving up respectively
+// Elevator also has a state and all states and their transitions are described in enum
+// States are used for various getters checks and possible transitions to other states
+
+// Another thing elevator keeps track of are the state updates and time when it happens
+// Version of elevator changes whenever it is updated or gets new people, so others can cache data about it
+// Elevator is only updated when its own event happens, so position is kept for the time of the last update
+// Position at any later time is calculated from the direction and time passed since then
+
+// Elevator also keeps track of people it carries and of ones that are waiting for it
+// People that are traveling are grouped by floor on which they leave
+// People that are waiting are grouped by floor on which they enter
+// Next stop floor is the closest floor with anyone waiting or traveling in direction of movement
+
+// People leaving the elevator are passed to the statistic of the replication that owns the elevator
+// If there is event recorder, state changes and people entering and leaving are recorded in it
+// Time spent in every state is counted at state changes, for metrics and for time series if the statistic has one
+// State changes are also flight recorder events when they are enabled
+public class Elevator {
+	private long _Position = 0;
+	private int _Direction = 0;
+	private ElevatorState _State = ElevatorState.Idle;
+	private long _LastStateChangeTime = 0;
+	// Ticks spent in every state before the last state change, by ordinal
+	private long[] _StateTicks = new long[ElevatorState.values().length];
+	private long _LastUpdateTime = 0;
+	private int _Version = 0;
+
+	private FloorQueue _PeopleWaiting;
+	private FloorQueue _PeopleTraveling;
+
+	private int _Index;
+	private PersonPool _People;
+	private Statistic _Statistic;
+	// Event recorder or null if events are not recorded
+	private EventRecorder _Recorder;
+	// Time series of the statistic or null if there is none
+	private TimeSeries _TimeSeries;
+
+	private long _EnterTime;
+	private long _LeaveTime;
+	private long _FloorTime;
+
+	public Elevator(int index,
+					Configuration configuration,
+					PersonPool people,
+					Statistic statistic,
+					EventRecorder recorder) {
+		_Index = index;
+		_People = people;
+		_Statistic = statistic;
+		_Recorder = recorder;
+		_TimeSeries = statistic.TimeSeries();
+		_EnterTime = configuration.ElevatorEnterTime();
+		_LeaveTime = configuration.ElevatorLeaveTime();
+		_FloorTime = configuration.ElevatorFloorTime();
+		_PeopleWaiting = new FloorQueue(configuration.NumberOfFloors(), people);
+		_PeopleTraveling = new FloorQueue(configuration.NumberOfFloors(), people);
+	}
+
+	public int Index() {
+		return _Index;
+	}
+	public int Version() {
+		return _Version;
+	}
+	// This returns position of elevator at given time (which must not be before the last update)
+	public long Position(long time) {
+		if (IsMoving()) {
+			return _Position + _Direction * (time - _LastUpdateTime);
+		}
+		return _Position;
+	}
+	// This returns position of given floor
+	public long FloorPosition(int floor) {
+		return floor * _FloorTime;
+	}
+	// This returns ticks spent in given state until given time
+	public long StateTicks(ElevatorState state,
+							long time) {
+		return _StateTicks[state.ordinal()] + (state == _State ? time - _LastStateChangeTime : 0);
+	}
+	// This returns floor on which elevator is stopped
+	private int StoppedFloor() {
+		return (int)(_Position / _FloorTime);
+	}
+	public int Direction() {
+		return _Direction;
+	}
+
+	// This returns if elevator is stopped or not
+	public boolean IsStopped() {
+		return _State == ElevatorState.Idle;
+	}
+	// This returns if elevator is moving between floors
+	public boolean IsMoving() {
+		return _State == ElevatorState.MovingUnstoppable || _State == ElevatorState.MovingStoppable;
+	}
+	// This returns if an elevator can be stopped for anyone
+	public boolean CanStop() {
+		return _State != ElevatorState.MovingUnstoppable;
+	}
+	// This returns if an elevator can be stopped for people waiting on floor to go in direction
+	// The elevator can also stop for people with same enter floor and direction as first waiting person
+	public boolean CanStop(int floor,
+							int direction) {
+		boolean floorAndDirectionMatch = false;
+		if (!_PeopleWaiting.IsEmpty(floor)) {
+			floorAndDirectionMatch = _People.Direction(_PeopleWaiting.Peek(floor)) == direction;
+		}
+		return CanStop() || floorAndDirectionMatch;
+	}
+	// This returns which floor is the first one on which the elevator will stop
+	// Moving elevator stops on the closest stop floor in direction of movement
+	// Stopped elevator goes to the closest stop floor in any direction (direction of movement if same distance)
+	public int FirstStopFloor() {
+		// If elevator is empty and not moving it is already stopped
+		if (_State == ElevatorState.Idle) {
+			return Constants.INVALID_VALUE;
+		}
+		int floor = ClosestStopFloor(_Direction);
+		if (IsMoving() && floor != Constants.INVALID_VALUE) {
+			return floor;
+		}
+		int otherFloor = ClosestStopFloor(-_Direction);
+		if (floor == Constants.INVALID_VALUE ||
+			(otherFloor != Constants.INVALID_VALUE &&
+			Math.abs(FloorPosition(otherFloor) - _Position) < Math.abs(FloorPosition(floor) - _Position))) {
+			return otherFloor;
+		}
+		return floor;
+	}
+	// This returns which floor is the last one on which elevator will stop
+	// When talking about states, this is floor on which it will be idle
+	public int LastStopFloor() {
+		// If elevator is empty and not moving it is already stopped
+		if (_State == ElevatorState.Idle) {
+			return Constants.INVALID_VALUE;
+		}
+		if (_Direction == 1) {
+			return Math.max(_PeopleWaiting.PreviousFloor(Integer.MAX_VALUE), _PeopleTraveling.PreviousFloor(Integer.MAX_VALUE));
+		}
+		return Methods.MinFloor(_PeopleWaiting.NextFloor(0), _PeopleTraveling.NextFloor(0));
+	}
+	// This returns closest floor with anyone waiting or traveling in given direction from elevator position
+	// Floor on which elevator is counts as being in both directions
+	private int ClosestStopFloor(int direction) {
+		if (direction == 1) {
+			int floor = (int)((_Position + _FloorTime - 1) / _FloorTime);
+			return Methods.MinFloor(_PeopleWaiting.NextFloor(floor), _PeopleTraveling.NextFloor(floor));
+		}
+		int floor = (int)(_Position / _FloorTime);
+		return Math.max(_PeopleWaiting.PreviousFloor(floor), _PeopleTraveling.PreviousFloor(floor));
+	}
+	// This checks if people waiting on floor to go in direction can be assigned to elevator at given time
+	// Stopped elevator can always be assigned, others only if they can stop, go in the same direction and have not passed the floor yet
+	public boolean CanAssign(int floor,
+								int direction,
+								long time) {
+		// If an elevator is not going anywhere, it can be assigned
+		if (IsStopped()) {
+			return true;
+		}
+		// If an elevator cannot stop, it cannot be assigned
+		if (!CanStop(floor, direction)) {
+			return false;
+		}
+		// Check if an elevator and people are going in same direction
+		if (_Direction != direction) {
+			return false;
+		}
+		// If the directions match, check if the elevator has already passed the floor
+		if (_Direction == 1) {
+			return Position(time) <= FloorPosition(floor);
+		}
+		return Position(time) >= FloorPosition(floor);
+	}
+	public boolean IsNextPersonWaitingOnFloor(int floor) {
+		return !_PeopleWaiting.IsEmpty(floor);
+	}
+	public boolean IsNextPersonTravelingToFloor(int floor) {
+		return !_PeopleTraveling.IsEmpty(floor);
+	}
+
+	// These return number of people waiting or traveling, in total or on a floor (enter floor for waiting and leave floor for traveling)
+	public int NumberOfPeople() {
+		return _PeopleWaiting.Size() + _PeopleTraveling.Size();
+	}
+	public int WaitingPeople(int floor) {
+		return _PeopleWaiting.Size(floor);
+	}
+	public int TravelingPeople(int floor) {
+		return _PeopleTraveling.Size(floor);
+	}
+	// This returns the first floor that elevator has not passed in direction of movement, as of the last update
+	// Floor on which elevator is counts as not passed, and elevator never passes a stop floor between updates
+	public int FloorAhead() {
+		if (_Direction == 1) {
+			return (int)((_Position + _FloorTime - 1) / _FloorTime);
+		}
+		return (int)(_Position / _FloorTime);
+	}
+
+	// This returns number of stop floors for people that are waiting
+	public int WaitStopFloors() {
+		return _PeopleWaiting.Floors();
+	}
+	// This returns number of stop floors for people that are traveling
+	public int TravelStopFloors() {
+		return _PeopleTraveling.Floors();
+	}
+	// This returns number of stop floors for people that are waiting before given enter floor
+	public int WaitStopFloorsBeforeEnter(int enterFloor) {
+		return FloorsBefore(_PeopleWaiting, enterFloor);
+	}
+	// This returns number of stop floors for people that are traveling before given enter floor
+	public int TravelStopFloorsBeforeEnter(int enterFloor) {
+		return FloorsBefore(_PeopleTraveling, enterFloor);
+	}
+	// This returns number of nonempty floors between elevator and limit floor (without limit floor)
+	// Floors are counted in direction of movement, so when elevator is idle there are none
+	private int FloorsBefore(FloorQueue people,
+								int limitFloor) {
+		if (_Direction == 1) {
+			return people.Floors(FloorAhead(), limitFloor - 1);
+		}
+		if (_Direction == -1) {
+			return people.Floors(limitFloor + 1, FloorAhead());
+		}
+		return 0;
+	}
+	// This adds person in people waiting
+	// Time is passed when going from Idle to MovingUnstoppable
+	public void AddWaitingPerson(int person,
+									long time) {
+		// Position has to be current before stop floors change
+		Advance(time);
+		++_Version;
+		_PeopleWaiting.Add(_People.EnterFloor(person), person);
+		// Since idle state has to be changed instantly, do it here
+		// It is needed instantly because of elevator filtering
+		if (_State == ElevatorState.Idle) {
+			_State = ElevatorState.MovingUnstoppable;
+			_Direction = _Position > FloorPosition(_People.EnterFloor(person)) ? -1 : 1;
+			_StateTicks[ElevatorState.Idle.ordinal()] += time - _LastStateChangeTime;
+			if (_TimeSeries != null) {
+				_TimeSeries.State(_Index, ElevatorState.Idle, _LastStateChangeTime, time);
+			}
+			_LastStateChangeTime = time;
+			FlightEvents.CommitStateChange(_Index, ElevatorState.Idle, _State, time);
+			if (_Recorder != null) {
+				_Recorder.RecordState(time, _Index, StoppedFloor(), ElevatorState.Idle, _State);
+			}
+		}
+	}
+	// This adds person in people traveling
+	public void AddTravelingPerson(int person,
+									long time) {
+		_PeopleTraveling.Add(_People.LeaveFloor(person), person);
+		_People.EnterElevator(person, time);
+	}
+
+	// This moves elevator to position it is on at given time
+	private void Advance(long time) {
+		_Position = Position(time);
+		_LastUpdateTime = time;
+	}
+
+	// This updates the elevator states through transitions
+	// It is only called at the time returned by NextEventTime, so the transition is always due
+	public void Update(long time) {
+		Advance(time);
+		++_Version;
+		ElevatorState oldState = _State;
+		long oldStateChangeTime = _LastStateChangeTime;
+		switch (_State) {
+		// Idle has only transition to MovingUnstoppable which is done in AddWaitingPerson
+		case Idle:
+			break;
+		// MovingUnstoppable has only transition to PeopleEntering
+		// The event happens when elevator reaches first stop floor
+		case MovingUnstoppable:
+			_Position = FloorPosition(FirstStopFloor());
+			_State = ElevatorState.PeopleEntering;
+			_LastStateChangeTime = time;
+			break;
+		// PeopleEntering has only transition to MovingStoppable
+		// The event happens when enough time has passed for people to finish entering
+		case PeopleEntering:
+			while (!_PeopleWaiting.IsEmpty(StoppedFloor())) {
+				int person = _PeopleWaiting.Remove(StoppedFloor());
+				AddTravelingPerson(person, _LastStateChangeTime);
+				if (_Recorder != null) {
+					_Recorder.RecordPerson(time, EventRecorder.ENTER, _People, person, _Index, StoppedFloor());
+				}
+			}
+			_Direction = _Position > FloorPosition(FirstStopFloor()) ? -1 : 1;
+			_State = ElevatorState.MovingStoppable;
+			_LastStateChangeTime = time;
+			break;
+		// MovingStoppable is stopped for two reasons: people entering and people leaving
+		// The event happens when stopping floor is reached, so make transition to one of possible states
+		case MovingStoppable:
+			int stopFloor = FirstStopFloor();
+			_Position = FloorPosition(stopFloor);
+			if (IsNextPersonWaitingOnFloor(stopFloor)) {
+				_State = ElevatorState.PeopleEntering;
+				_LastStateChangeTime = time;
+			}
+			else if (IsNextPersonTravelingToFloor(stopFloor)) {
+				_State = ElevatorState.PeopleLeaving;
+				_LastStateChangeTime = time;
+			}
+			break;
+		// After people leave, two transitions are possible:
+		// If there are no more people in elevator and nobody is waiting, it becomes idle
+		// If someone is waiting on that same floor, it goes to PeopleEntering state
+		// The event happens when enough time has passed for people to finish leaving
+		case PeopleLeaving:
+			while (!_PeopleTraveling.IsEmpty(StoppedFloor())) {
+				int person = _PeopleTraveling.Remove(StoppedFloor());
+				// Person is recorded before leaving, since its index is freed then
+				if (_Recorder != null) {
+					_Recorder.RecordPerson(time, EventRecorder.LEAVE, _People, person, _Index, StoppedFloor());
+				}
+				_People.LeaveElevator(person, time, _Statistic);
+			}
+			if (_PeopleWaiting.IsEmpty() && _PeopleTraveling.IsEmpty()) {
+				_State = ElevatorState.Idle;
+				_LastStateChangeTime = time;
+			}
+			else if (IsNextPersonWaitingOnFloor(StoppedFloor())) {
+				_State = ElevatorState.PeopleEntering;
+				_LastStateChangeTime = time;
+			} else if (!IsNextPersonWaitingOnFloor(StoppedFloor()) &&
+						FirstStopFloor() != Constants.INVALID_VALUE) {
+				_Direction = _Position > FloorPosition(FirstStopFloor()) ? -1 : 1;
+				_State = ElevatorState.MovingStoppable;
+				_LastStateChangeTime = time;
+			}
+			break;
+		}
+		if (_State != oldState) {
+			_StateTicks[oldState.ordinal()] += time - oldStateChangeTime;
+			if (_TimeSeries != null) {
+				_TimeSeries.State(_Index, oldState, oldStateChangeTime, time);
+			}
+			FlightEvents.CommitStateChange(_Index, oldState, _State, time);
+			if (_Recorder != null) {
+				_Recorder.RecordState(time, _Index, StoppedFloor(), oldState, _State);
+			}
+		}
+	}
+
+	// This counts time in the current state until the end of the replication, for time series
+	public void Finish(long time) {
+		if (_TimeSeries != null) {
+			_TimeSeries.State(_Index, _State, _LastStateChangeTime, time);
+		}
+	}
+
+	// This returns time of next elevator event (state transition)
+	public long NextEventTime() {
+		switch (_State) {
+		// Idle has invalid event time
+		case Idle:
+			return Constants.INVALID_TIME;
+		// If the elevator is moving, calculate the time when it will stop next time
+		case MovingUnstoppable:
+		case MovingStoppable:
+			return _LastUpdateTime + Math.abs(FloorPosition(FirstStopFloor()) - _Position);
+		// If people are entering, calculate when will they finish entering
+		case PeopleEntering:
+			return _LastStateChangeTime + _EnterTime;
+		// If people are leaving, calculate when will they finish leaving
+		case PeopleLeaving:
+			return _LastStateChangeTime + _LeaveTime;
+		}
+		return Constants.INVALID_TIME;
+	}
+}
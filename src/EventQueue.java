@@ -0,0 +1,88 @@
+// Author: Sayeed Gulmahamad
+// This keeps the time of the next event for every elevator and returns the earliest one
+// It is an indexed binary heap: elevators are identified by their index and each one has a position in heap
+// Changing the event time of one elevator moves only it in the heap, which is O(log n)
+// Elevators without event (idle ones) have invalid time and stay at the bottom of the heap
+// When two elevators have the same event time, the one with lower index comes first
+public class EventQueue {
+	private long[] _Times;
+	// Heap of elevator indices
+	private int[] _Heap;
+	// Position of every elevator index in heap
+	private int[] _Positions;
+
+	public EventQueue(int size) {
+		_Times = new long[size];
+		_Heap = new int[size];
+		_Positions = new int[size];
+		for (int i = 0; i < size; ++i) {
+			_Times[i] = Constants.INVALID_TIME;
+			_Heap[i] = i;
+			_Positions[i] = i;
+		}
+	}
+
+	// This returns index of elevator with the earliest event
+	public int Peek() {
+		return _Heap[0];
+	}
+	// This returns time of the earliest event
+	public long PeekTime() {
+		return _Heap.length == 0 ? Constants.INVALID_TIME : _Times[_Heap[0]];
+	}
+
+	// This sets new event time for elevator and restores heap order
+	public void Update(int index,
+						long time) {
+		long oldTime = _Times[index];
+		_Times[index] = time;
+		if (time < oldTime) {
+			MoveUp(_Positions[index]);
+		} else if (time > oldTime) {
+			MoveDown(_Positions[index]);
+		}
+	}
+
+	private boolean IsBefore(int first,
+								int second) {
+		return _Times[first] < _Times[second] ||
+				(_Times[first] == _Times[second] && first < second);
+	}
+
+	private void MoveUp(int position) {
+		int index = _Heap[position];
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			if (!IsBefore(index, _Heap[parent])) {
+				break;
+			}
+			Set(position, _Heap[parent]);
+			position = parent;
+		}
+		Set(position, index);
+	}
+
+	private void MoveDown(int position) {
+		int index = _Heap[position];
+		int half = _Heap.length / 2;
+		while (position < half) {
+			int child = 2 * position + 1;
+			if (child + 1 < _Heap.length &&
+				IsBefore(_Heap[child + 1], _Heap[child])) {
+				++child;
+			}
+			if (!IsBefore(_Heap[child], index)) {
+				break;
+			}
+			Set(position, _Heap[child]);
+			position = child;
+		}
+		Set(position, index);
+	}
+
+	private void Set(int position,
+						int index) {
+		_Heap[position] = index;
+		_Positions[index] = position;
+	}
+}
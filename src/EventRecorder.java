@@ -0,0 +1,207 @@
+// Author: Sayeed Gulmahamad
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+// This records simulation events of one replication in a binary file (event trace)
+// Records are put in a ring of preallocated chunks, and a background thread writes full chunks to the file
+// Simulation thread only stores a record in three longs of a chunk, so it never waits for the disk
+// Flusher converts chunks to bytes (in bulk) and writes them
+// If the disk falls so much behind that the ring is full, records are dropped and counted instead of waiting
+// Ring has one producer (simulation) and one consumer (flusher), so two counters are all the synchronization needed
+
+// Event file format (big endian):
+//	Header: magic "ELVE" (4 bytes), version (int), replication (int), unused (int), number of records (long), dropped records (long)
+//	Records: time in ticks (long), person (int), elevator (short), floor (short), other floor (short),
+//			kind (byte), old state (byte), new state (byte), 3 unused bytes
+// Person is its number in order of creation, and person, elevator and floors are invalid value (-1) if the event does not have them, and states are ordinals of ElevatorState
+public class EventRecorder implements AutoCloseable {
+	public static final int MAGIC = 0x454C5645;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 32;
+	public static final int RECORD_SIZE = 24;
+
+	// Kinds of records
+	// Person is created (floor is enter floor, other floor is leave floor)
+	public static final byte ARRIVAL = 0;
+	// Person is assigned to elevator (floor is enter floor, other floor is leave floor)
+	public static final byte ASSIGN = 1;
+	// Elevator changes its state (floor is the floor it is on or has just passed)
+	public static final byte STATE = 2;
+	// Person enters elevator (floor is enter floor)
+	public static final byte ENTER = 3;
+	// Person leaves elevator (floor is leave floor)
+	public static final byte LEAVE = 4;
+
+	private static final int CHUNK_RECORDS = 8192;
+	private static final int CHUNK_COUNT = 16;
+	private static final int RECORD_LONGS = RECORD_SIZE / 8;
+
+	private long[][] _Chunks;
+	// Number of longs in every published chunk
+	private int[] _ChunkSizes;
+	// Chunk being filled by simulation thread and number of longs in it, chunk is null if there was no free chunk
+	private long[] _Chunk;
+	private int _ChunkSize = 0;
+	// Number of chunks given to flusher and number of chunks already written, chunk i is at i % CHUNK_COUNT
+	private volatile long _Published = 0;
+	private volatile long _Flushed = 0;
+	private volatile boolean _IsClosed = false;
+	private long _Records = 0;
+	private long _Dropped = 0;
+
+	private int _Replication;
+	private FileChannel _Channel;
+	private Thread _Flusher;
+	private IOException _Error;
+
+	public EventRecorder(String fileName,
+							int replication) throws IOException {
+		_Replication = replication;
+		_Channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		_Chunks = new long[CHUNK_COUNT][CHUNK_RECORDS * RECORD_LONGS];
+		_ChunkSizes = new int[CHUNK_COUNT];
+		_Chunk = _Chunks[0];
+		_Flusher = new Thread(this::Flush, "EventRecorder-" + replication);
+		_Flusher.setDaemon(true);
+		_Flusher.start();
+	}
+
+	// File name of a replication, every replication has its own file
+	public static String FileName(String eventFile,
+									int replication) {
+		return eventFile + "." + replication;
+	}
+
+	public void Record(long time,
+						byte kind,
+						int person,
+						int elevator,
+						int floor,
+						int otherFloor,
+						ElevatorState oldState,
+						ElevatorState newState) {
+		if (_Chunk == null && !NextChunk()) {
+			++_Dropped;
+			return;
+		}
+		// Record is packed in three longs, which in big endian give the same bytes as writing the fields one by one
+		long[] chunk = _Chunk;
+		int size = _ChunkSize;
+		chunk[size] = time;
+		chunk[size + 1] = (long)person << 32 | (elevator & 0xFFFFL) << 16 | (floor & 0xFFFFL);
+		chunk[size + 2] = (otherFloor & 0xFFFFL) << 48 | (kind & 0xFFL) << 40 |
+							((oldState == null ? Constants.INVALID_VALUE : oldState.ordinal()) & 0xFFL) << 32 |
+							((newState == null ? Constants.INVALID_VALUE : newState.ordinal()) & 0xFFL) << 24;
+		_ChunkSize = size + RECORD_LONGS;
+		++_Records;
+		if (_ChunkSize == chunk.length) {
+			Publish();
+		}
+	}
+
+	// These record events of people and of elevators
+	public void RecordPerson(long time,
+								byte kind,
+								PersonPool people,
+								int person,
+								int elevator,
+								int floor) {
+		Record(time, kind, people.Number(person), elevator, floor, people.LeaveFloor(person), null, null);
+	}
+	public void RecordState(long time,
+							int elevator,
+							int floor,
+							ElevatorState oldState,
+							ElevatorState newState) {
+		Record(time, STATE, Constants.INVALID_VALUE, elevator, floor, Constants.INVALID_VALUE, oldState, newState);
+	}
+
+	// Full chunk is given to flusher, and the next chunk is taken when the next record comes
+	private void Publish() {
+		_ChunkSizes[(int)(_Published % CHUNK_COUNT)] = _ChunkSize;
+		_Chunk = null;
+		_ChunkSize = 0;
+		_Published = _Published + 1;
+		LockSupport.unpark(_Flusher);
+	}
+	private boolean NextChunk() {
+		if (_Published - _Flushed >= CHUNK_COUNT) {
+			return false;
+		}
+		_Chunk = _Chunks[(int)(_Published % CHUNK_COUNT)];
+		return true;
+	}
+
+	// Flusher writes published chunks in order, and waits a little when there are none
+	private void Flush() {
+		long position = HEADER_SIZE;
+		ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD_SIZE);
+		try {
+			while (true) {
+				if (_Flushed < _Published) {
+					int index = (int)(_Flushed % CHUNK_COUNT);
+					buffer.asLongBuffer().put(_Chunks[index], 0, _ChunkSizes[index]);
+					buffer.limit(_ChunkSizes[index] * 8);
+					while (buffer.hasRemaining()) {
+						position += _Channel.write(buffer, position);
+					}
+					buffer.clear();
+					_Flushed = _Flushed + 1;
+				} else if (_IsClosed) {
+					return;
+				} else {
+					LockSupport.parkNanos(1000000);
+				}
+			}
+		}
+		catch (IOException exception) {
+			_Error = exception;
+		}
+	}
+
+	// This writes remaining records and the header, and closes the file
+	public void close() throws IOException {
+		if (_Chunk != null && _ChunkSize > 0) {
+			Publish();
+		}
+		_IsClosed = true;
+		LockSupport.unpark(_Flusher);
+		try {
+			_Flusher.join();
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			if (_Error != null) {
+				throw _Error;
+			}
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.putInt(_Replication);
+			header.putInt(0);
+			header.putLong(_Records);
+			header.putLong(_Dropped);
+			header.flip();
+			long position = 0;
+			while (header.hasRemaining()) {
+				position += _Channel.write(header, position);
+			}
+		}
+		finally {
+			_Channel.close();
+		}
+	}
+
+	public long Records() {
+		return _Records;
+	}
+	public long Dropped() {
+		return _Dropped;
+	}
+}
@@ -0,0 +1,208 @@
+// Author: Sayeed Gulmahamad
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// This replays an event file written by EventRecorder, as text in order of time
+// Events can be filtered by kind, elevator, person and time, or only summarized
+// Summary has number of events of every kind and time every elevator spent in every state
+// File is memory mapped in windows of whole records (format is described in EventRecorder)
+// Usage: EventTrace file [--kind=state,enter,...] [--elevator=i] [--person=i] [--from=seconds] [--to=seconds] [--summary]
+public class EventTrace {
+	private static final String[] KIND_NAMES = { "ARRIVAL", "ASSIGN", "STATE", "ENTER", "LEAVE" };
+	private static final int WINDOW_RECORDS = (Integer.MAX_VALUE / EventRecorder.RECORD_SIZE) & ~0xFFF;
+
+	// Filters, invalid value (or all kinds) if not given
+	private boolean[] _Kinds = { true, true, true, true, true };
+	private int _Elevator = Constants.INVALID_VALUE;
+	private int _Person = Constants.INVALID_VALUE;
+	private long _From = 0;
+	private long _To = Constants.INVALID_TIME;
+	private boolean _IsSummary = false;
+
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.out.println("Usage: EventTrace file [--kind=state,enter,...] [--elevator=i] [--person=i] [--from=seconds] [--to=seconds] [--summary]");
+			System.exit(1);
+			return;
+		}
+		try {
+			EventTrace trace = new EventTrace();
+			for (int i = 1; i < args.length; ++i) {
+				trace.Set(args[i]);
+			}
+			trace.Run(args[0]);
+		}
+		catch (IllegalArgumentException | IOException exception) {
+			System.out.println("ERROR: " + exception.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private void Set(String arg) {
+		int separator = arg.indexOf('=');
+		String key = separator < 0 ? arg : arg.substring(0, separator);
+		String value = separator < 0 ? "" : arg.substring(separator + 1);
+		try {
+			switch (key) {
+			case "--kind":
+				_Kinds = new boolean[KIND_NAMES.length];
+				for (String kind : value.split(",")) {
+					_Kinds[Kind(kind.trim())] = true;
+				}
+				break;
+			case "--elevator":
+				// Elevators are numbered from 1 as in results
+				_Elevator = Integer.parseInt(value) - 1;
+				break;
+			case "--person":
+				_Person = Integer.parseInt(value);
+				break;
+			case "--from":
+				_From = Math.round(Double.parseDouble(value) * Constants.TIME_UNIT_CHUNKS);
+				break;
+			case "--to":
+				_To = Math.round(Double.parseDouble(value) * Constants.TIME_UNIT_CHUNKS);
+				break;
+			case "--summary":
+				_IsSummary = true;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown argument " + arg);
+			}
+		}
+		catch (NumberFormatException exception) {
+			throw new IllegalArgumentException("Argument " + arg + " has invalid value");
+		}
+	}
+
+	private static int Kind(String name) {
+		for (int i = 0; i < KIND_NAMES.length; ++i) {
+			if (KIND_NAMES[i].equalsIgnoreCase(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unknown event kind " + name);
+	}
+
+	private void Run(String fileName) throws IOException {
+		MappedByteBuffer[] windows;
+		long records;
+		long dropped;
+		int replication;
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(EventRecorder.HEADER_SIZE);
+			while (header.hasRemaining() && channel.read(header) >= 0) {}
+			if (header.hasRemaining() || header.getInt(0) != EventRecorder.MAGIC) {
+				throw new IOException("File " + fileName + " is not an event file");
+			}
+			if (header.getInt(4) != EventRecorder.VERSION) {
+				throw new IOException("Event file " + fileName + " has unknown version " + header.getInt(4));
+			}
+			replication = header.getInt(8);
+			records = header.getLong(16);
+			dropped = header.getLong(24);
+			if (channel.size() < EventRecorder.HEADER_SIZE + records * EventRecorder.RECORD_SIZE) {
+				throw new IOException("Event file " + fileName + " is shorter than its records");
+			}
+			windows = new MappedByteBuffer[(int)((records + WINDOW_RECORDS - 1) / WINDOW_RECORDS)];
+			for (int i = 0; i < windows.length; ++i) {
+				long first = (long)i * WINDOW_RECORDS;
+				long count = Math.min(WINDOW_RECORDS, records - first);
+				windows[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+											EventRecorder.HEADER_SIZE + first * EventRecorder.RECORD_SIZE,
+											count * EventRecorder.RECORD_SIZE);
+			}
+		}
+
+		PrintWriter output = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+		ElevatorState[] states = ElevatorState.values();
+		long[] kindCounts = new long[KIND_NAMES.length];
+		// Time in every state by elevator, and time and state of the last state change of every elevator
+		long[][] stateTimes = new long[0][];
+		long[] lastTimes = new long[0];
+		int[] lastStates = new int[0];
+		long lastTime = 0;
+		for (long i = 0; i < records; ++i) {
+			MappedByteBuffer window = windows[(int)(i / WINDOW_RECORDS)];
+			int offset = (int)(i % WINDOW_RECORDS) * EventRecorder.RECORD_SIZE;
+			long time = window.getLong(offset);
+			if (time < _From || time > _To) {
+				continue;
+			}
+			int person = window.getInt(offset + 8);
+			int elevator = window.getShort(offset + 12);
+			int floor = window.getShort(offset + 14);
+			int otherFloor = window.getShort(offset + 16);
+			int kind = window.get(offset + 18);
+			int oldState = window.get(offset + 19);
+			int newState = window.get(offset + 20);
+			if (!_Kinds[kind] ||
+				(_Elevator != Constants.INVALID_VALUE && elevator != _Elevator) ||
+				(_Person != Constants.INVALID_VALUE && person != _Person)) {
+				continue;
+			}
+			++kindCounts[kind];
+			lastTime = time;
+			if (kind == EventRecorder.STATE) {
+				if (elevator >= stateTimes.length) {
+					stateTimes = Arrays.copyOf(stateTimes, elevator + 1);
+					lastTimes = Arrays.copyOf(lastTimes, elevator + 1);
+					lastStates = Arrays.copyOf(lastStates, elevator + 1);
+				}
+				if (stateTimes[elevator] == null) {
+					stateTimes[elevator] = new long[states.length];
+					lastTimes[elevator] = _From;
+				}
+				stateTimes[elevator][oldState] += time - lastTimes[elevator];
+				lastTimes[elevator] = time;
+				lastStates[elevator] = newState;
+			}
+			if (_IsSummary) {
+				continue;
+			}
+			output.format("%12.2f %-8s", Methods.FormatTime(time), KIND_NAMES[kind]);
+			switch (kind) {
+			case EventRecorder.ARRIVAL:
+				output.format(" person %d floor %d -> %d%n", person, floor + 1, otherFloor + 1);
+				break;
+			case EventRecorder.ASSIGN:
+				output.format(" person %d elevator %d floor %d -> %d%n", person, elevator + 1, floor + 1, otherFloor + 1);
+				break;
+			case EventRecorder.STATE:
+				output.format(" elevator %d floor %d %s -> %s%n", elevator + 1, floor + 1, states[oldState], states[newState]);
+				break;
+			default:
+				output.format(" person %d elevator %d floor %d%n", person, elevator + 1, floor + 1);
+				break;
+			}
+		}
+		if (_IsSummary) {
+			output.format("Replication = %d Events = %d Dropped = %d%n", replication, records, dropped);
+			for (int i = 0; i < KIND_NAMES.length; ++i) {
+				output.format("\t %s = %d%n", KIND_NAMES[i], kindCounts[i]);
+			}
+			// Time since the last state change is counted until the last event shown
+			for (int i = 0; i < stateTimes.length; ++i) {
+				if (stateTimes[i] == null) {
+					continue;
+				}
+				stateTimes[i][lastStates[i]] += lastTime - lastTimes[i];
+				output.format("Elevator %d%n", i + 1);
+				for (int j = 0; j < states.length; ++j) {
+					output.format("\t %s = %.2f%n", states[j], Methods.FormatTime(stateTimes[i][j]));
+				}
+			}
+		} else if (dropped != 0) {
+			output.format("WARNING: %d events were dropped while recording%n", dropped);
+		}
+		output.flush();
+	}
+}
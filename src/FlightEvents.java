@@ -0,0 +1,86 @@
+// Author: Sayeed Gulmahamad
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// These are JDK Flight Recorder events of the simulator, so its behaviour can be seen next to GC and JIT activity in one recording
+// All of them are disabled by default, even in default and profile settings, and elevator.jfc enables them
+// Disabled event is never committed and JIT removes its allocation, so events cost nothing when they are off
+// Stack traces are not taken, since events come from a few known places
+//	java -XX:StartFlightRecording:settings=profile,settings=elevator.jfc,filename=run.jfr -jar simulator.jar
+public class FlightEvents {
+	private static final String CATEGORY = "Elevator Simulation";
+
+	@Name("elevator.Dispatch")
+	@Label("Dispatch")
+	@Description("Dispatch strategy chose an elevator for people waiting on a floor")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	public static class Dispatch extends Event {
+		@Label("Floor")
+		public int floor;
+		@Label("Direction")
+		public int direction;
+		@Label("Candidates")
+		@Description("Elevators whose pickup time was evaluated")
+		public int candidates;
+		@Label("Elevator")
+		@Description("Chosen elevator, or -1 if none could be chosen")
+		public int elevator;
+		@Label("Cost")
+		@Description("Cost of the chosen elevator in seconds (pickup time, or insertion cost with look-ahead dispatch)")
+		public double cost;
+	}
+
+	@Name("elevator.StateChange")
+	@Label("Elevator State Change")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	public static class StateChange extends Event {
+		@Label("Elevator")
+		public int elevator;
+		@Label("Old State")
+		public String oldState;
+		@Label("New State")
+		public String newState;
+		@Label("Simulated Time")
+		@Description("Simulated time of the change in seconds")
+		public double time;
+	}
+
+	@Name("elevator.Replication")
+	@Label("Replication")
+	@Description("One replication of the simulation, from start to end")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	public static class Replication extends Event {
+		@Label("Replication")
+		public int replication;
+		@Label("People")
+		public long people;
+		@Label("People per Second")
+		public double peoplePerSecond;
+	}
+
+	// This commits a state change if the event is enabled
+	public static void CommitStateChange(int elevator,
+											ElevatorState oldState,
+											ElevatorState newState,
+											long time) {
+		StateChange event = new StateChange();
+		if (event.shouldCommit()) {
+			event.elevator = elevator;
+			event.oldState = oldState.name();
+			event.newState = newState.name();
+			event.time = Methods.FormatTime(time);
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,145 @@
+// Author: Sayeed Gulmahamad
+// This keeps people of one elevator grouped by floor (enter floor for waiting and leave floor for traveling people)
+// Every floor has its own first in first out queue, so adding and removing a person is O(1)
+// Queue is a list of people linked through the person pool, so only first and last person of every floor are kept here
+// Floors that have anyone in their queue are marked in a bit set (one bit per floor)
+// Next and previous nonempty floor is found by scanning bit set words instead of people
+// Nonempty floors in a range are counted from bit set words too, without creating any objects
+// Number of people on every floor is kept too, so dispatch can weigh stops by people
+public class FloorQueue {
+	private PersonPool _People;
+	private int[] _First;
+	private int[] _Last;
+	private long[] _Floors;
+	private int[] _Sizes;
+	private int _Size = 0;
+
+	public FloorQueue(int numberOfFloors,
+						PersonPool people) {
+		_People = people;
+		_First = new int[numberOfFloors];
+		_Last = new int[numberOfFloors];
+		for (int i = 0; i < numberOfFloors; ++i) {
+			_First[i] = Constants.INVALID_VALUE;
+			_Last[i] = Constants.INVALID_VALUE;
+		}
+		_Floors = new long[(numberOfFloors + 63) / 64];
+		_Sizes = new int[numberOfFloors];
+	}
+
+	public int Size() {
+		return _Size;
+	}
+	// This returns number of people in floor queue
+	public int Size(int floor) {
+		return _Sizes[floor];
+	}
+	public boolean IsEmpty() {
+		return _Size == 0;
+	}
+	public boolean IsEmpty(int floor) {
+		return (_Floors[floor >>> 6] & (1L << floor)) == 0;
+	}
+	// This returns first person in floor queue, floor must not be empty
+	public int Peek(int floor) {
+		return _First[floor];
+	}
+
+	public void Add(int floor,
+					int person) {
+		_People.SetNext(person, Constants.INVALID_VALUE);
+		if (_Last[floor] == Constants.INVALID_VALUE) {
+			_First[floor] = person;
+		} else {
+			_People.SetNext(_Last[floor], person);
+		}
+		_Last[floor] = person;
+		_Floors[floor >>> 6] |= 1L << floor;
+		++_Sizes[floor];
+		++_Size;
+	}
+	// This removes first person from floor queue, floor must not be empty
+	public int Remove(int floor) {
+		int person = _First[floor];
+		_First[floor] = _People.Next(person);
+		if (_First[floor] == Constants.INVALID_VALUE) {
+			_Last[floor] = Constants.INVALID_VALUE;
+			_Floors[floor >>> 6] &= ~(1L << floor);
+		}
+		--_Sizes[floor];
+		--_Size;
+		return person;
+	}
+
+	// This returns lowest nonempty floor that is not lower than given floor
+	public int NextFloor(int floor) {
+		if (floor < 0) {
+			floor = 0;
+		}
+		int word = floor >>> 6;
+		if (word >= _Floors.length) {
+			return Constants.INVALID_VALUE;
+		}
+		long bits = _Floors[word] & (-1L << floor);
+		while (bits == 0) {
+			if (++word == _Floors.length) {
+				return Constants.INVALID_VALUE;
+			}
+			bits = _Floors[word];
+		}
+		return word * 64 + Long.numberOfTrailingZeros(bits);
+	}
+	// This returns highest nonempty floor that is not higher than given floor
+	public int PreviousFloor(int floor) {
+		if (floor < 0) {
+			return Constants.INVALID_VALUE;
+		}
+		int word = floor >>> 6;
+		if (word >= _Floors.length) {
+			word = _Floors.length - 1;
+			floor = _Floors.length * 64 - 1;
+		}
+		long bits = _Floors[word] & (-1L >>> (63 - (floor & 63)));
+		while (bits == 0) {
+			if (--word < 0) {
+				return Constants.INVALID_VALUE;
+			}
+			bits = _Floors[word];
+		}
+		return word * 64 + 63 - Long.numberOfLeadingZeros(bits);
+	}
+
+	// This returns number of nonempty floors
+	public int Floors() {
+		int count = 0;
+		for (int i = 0; i < _Floors.length; ++i) {
+			count += Long.bitCount(_Floors[i]);
+		}
+		return count;
+	}
+	// This returns number of nonempty floors from first to last floor (both included)
+	public int Floors(int firstFloor,
+						int lastFloor) {
+		if (firstFloor < 0) {
+			firstFloor = 0;
+		}
+		if (lastFloor >= _Floors.length * 64) {
+			lastFloor = _Floors.length * 64 - 1;
+		}
+		if (firstFloor > lastFloor) {
+			return 0;
+		}
+		int firstWord = firstFloor >>> 6;
+		int lastWord = lastFloor >>> 6;
+		long firstMask = -1L << firstFloor;
+		long lastMask = -1L >>> (63 - (lastFloor & 63));
+		if (firstWord == lastWord) {
+			return Long.bitCount(_Floors[firstWord] & firstMask & lastMask);
+		}
+		int count = Long.bitCount(_Floors[firstWord] & firstMask);
+		for (int i = firstWord + 1; i < lastWord; ++i) {
+			count += Long.bitCount(_Floors[i]);
+		}
+		return count + Long.bitCount(_Floors[lastWord] & lastMask);
+	}
+}
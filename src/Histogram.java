@@ -0,0 +1,233 @@
+// Author: Sayeed Gulmahamad
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+// This counts values in logarithmic buckets, so percentiles can be read without storing the values
+// Values lower than SUB_BUCKET_COUNT have their own bucket and are exact
+// Every higher power of two range is split in SUB_BUCKET_COUNT / 2 buckets of the same width
+// That way every bucket is at most 1/64 of its value wide (about 1.6% relative error)
+// There is a histogram for every floor pair and most pairs only get a few values, so memory grows with the buckets used:
+//	Few buckets are kept as sorted bucket indices with their counts, in arrays that start small and are doubled
+//	Once there are more than SPARSE_LIMIT buckets, every power of two range is a page of counts allocated with its first value
+// Memory is bounded (at most all pages) and recording is O(1) (at most SPARSE_LIMIT moves); two histograms are merged by adding their counts
+// Values are non-negative whole numbers (time is recorded in chunks); larger ones than MAX_VALUE are clamped
+// Histogram is written in binary form with nonempty buckets only, since most buckets are usually empty
+public class Histogram {
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+	private static final int MAX_VALUE_BITS = 36;
+	public static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+	private static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+	// Page is one power of two range (values below SUB_BUCKET_COUNT are two pages)
+	private static final int PAGE_BITS = SUB_BUCKET_BITS - 1;
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+	private static final int PAGE_COUNT = BUCKET_COUNT / PAGE_SIZE;
+	private static final int SPARSE_LIMIT = 32;
+	private static final int SPARSE_CAPACITY = 4;
+
+	// Nonempty buckets while there are few of them (arrays are allocated on first value), or null when there are pages
+	private int[] _Indices = null;
+	private long[] _Counts = null;
+	private int _Size = 0;
+	// Counts of every page once there are many buckets
+	private long[][] _Pages = null;
+	private long _TotalCount = 0;
+	private long _Max = 0;
+
+	public Histogram() {}
+
+	public void Add(long value) {
+		if (value < 0) {
+			value = 0;
+		} else if (value > MAX_VALUE) {
+			value = MAX_VALUE;
+		}
+		Add(BucketIndex(value), 1);
+		++_TotalCount;
+		if (value > _Max) {
+			_Max = value;
+		}
+	}
+
+	public void Merge(Histogram other) {
+		if (other._TotalCount == 0) {
+			return;
+		}
+		for (int i = 0; i < other.Entries(); ++i) {
+			if (other.EntryCount(i) != 0) {
+				Add(other.EntryIndex(i), other.EntryCount(i));
+			}
+		}
+		_TotalCount += other._TotalCount;
+		if (other._Max > _Max) {
+			_Max = other._Max;
+		}
+	}
+
+	public void Write(DataOutput output) throws IOException {
+		output.writeLong(_TotalCount);
+		if (_TotalCount == 0) {
+			return;
+		}
+		output.writeLong(_Max);
+		int buckets = 0;
+		for (int i = 0; i < Entries(); ++i) {
+			if (EntryCount(i) != 0) {
+				++buckets;
+			}
+		}
+		output.writeInt(buckets);
+		for (int i = 0; i < Entries(); ++i) {
+			if (EntryCount(i) != 0) {
+				output.writeInt(EntryIndex(i));
+				output.writeLong(EntryCount(i));
+			}
+		}
+	}
+	// This replaces counted values with the ones read
+	public void Read(DataInput input) throws IOException {
+		_TotalCount = input.readLong();
+		_Max = 0;
+		_Indices = null;
+		_Counts = null;
+		_Size = 0;
+		_Pages = null;
+		if (_TotalCount == 0) {
+			return;
+		}
+		_Max = input.readLong();
+		int buckets = input.readInt();
+		for (int i = 0; i < buckets; ++i) {
+			int index = input.readInt();
+			if (index < 0 || index >= BUCKET_COUNT) {
+				throw new IOException("Histogram bucket " + index + " is invalid");
+			}
+			Add(index, input.readLong());
+		}
+	}
+
+	public long TotalCount() {
+		return _TotalCount;
+	}
+	public long Max() {
+		return _Max;
+	}
+
+	// This returns value below which given percentage of values are
+	// Highest value of the bucket is returned (but never more than the maximum recorded value)
+	public long Percentile(double percentile) {
+		if (_TotalCount == 0) {
+			return 0;
+		}
+		long rank = (long)Math.ceil(percentile / 100 * _TotalCount);
+		if (rank < 1) {
+			rank = 1;
+		}
+		long count = 0;
+		for (int i = 0; i < Entries(); ++i) {
+			count += EntryCount(i);
+			if (count >= rank) {
+				return Math.min(BucketHighestValue(EntryIndex(i)), _Max);
+			}
+		}
+		return _Max;
+	}
+
+	// This returns several percentiles (in increasing order) in one pass over buckets, the same as Percentile gives for each
+	public void Percentiles(double[] percentiles,
+							long[] values) {
+		int next = 0;
+		long count = 0;
+		for (int i = 0; i < Entries() && next < percentiles.length && _TotalCount != 0; ++i) {
+			count += EntryCount(i);
+			while (next < percentiles.length && count >= Math.max(1, (long)Math.ceil(percentiles[next] / 100 * _TotalCount))) {
+				values[next++] = Math.min(BucketHighestValue(EntryIndex(i)), _Max);
+			}
+		}
+		for (; next < percentiles.length; ++next) {
+			values[next] = _TotalCount == 0 ? 0 : _Max;
+		}
+	}
+
+	// This adds count to a bucket
+	// A new bucket goes in its sorted place, and when there are already SPARSE_LIMIT buckets they are all moved to pages
+	private void Add(int index,
+						long count) {
+		if (_Pages == null) {
+			int position = _Size == 0 ? -1 : Arrays.binarySearch(_Indices, 0, _Size, index);
+			if (position >= 0) {
+				_Counts[position] += count;
+				return;
+			}
+			if (_Size < SPARSE_LIMIT) {
+				position = -position - 1;
+				if (_Indices == null) {
+					_Indices = new int[SPARSE_CAPACITY];
+					_Counts = new long[SPARSE_CAPACITY];
+				} else if (_Size == _Indices.length) {
+					_Indices = Arrays.copyOf(_Indices, 2 * _Size);
+					_Counts = Arrays.copyOf(_Counts, 2 * _Size);
+				}
+				System.arraycopy(_Indices, position, _Indices, position + 1, _Size - position);
+				System.arraycopy(_Counts, position, _Counts, position + 1, _Size - position);
+				_Indices[position] = index;
+				_Counts[position] = count;
+				++_Size;
+				return;
+			}
+			_Pages = new long[PAGE_COUNT][];
+			for (int i = 0; i < _Size; ++i) {
+				Page(_Indices[i])[_Indices[i] & (PAGE_SIZE - 1)] = _Counts[i];
+			}
+			_Indices = null;
+			_Counts = null;
+			_Size = 0;
+		}
+		Page(index)[index & (PAGE_SIZE - 1)] += count;
+	}
+	// This returns page of a bucket and allocates it if it has none yet
+	private long[] Page(int index) {
+		int page = index >>> PAGE_BITS;
+		if (_Pages[page] == null) {
+			_Pages[page] = new long[PAGE_SIZE];
+		}
+		return _Pages[page];
+	}
+
+	// Buckets are read as entries in increasing bucket order, which are the nonempty buckets or all buckets once there are pages
+	private int Entries() {
+		return _Pages == null ? _Size : BUCKET_COUNT;
+	}
+	private int EntryIndex(int entry) {
+		return _Pages == null ? _Indices[entry] : entry;
+	}
+	private long EntryCount(int entry) {
+		if (_Pages == null) {
+			return _Counts[entry];
+		}
+		long[] page = _Pages[entry >>> PAGE_BITS];
+		return page == null ? 0 : page[entry & (PAGE_SIZE - 1)];
+	}
+
+	// Bucket index is the value itself for low values
+	// For higher values, it is found from the highest bit (power of two range) and next SUB_BUCKET_BITS - 1 bits
+	private static int BucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int)value;
+		}
+		int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return shift * SUB_BUCKET_HALF_COUNT + (int)(value >>> shift);
+	}
+
+	private static long BucketHighestValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+		long subBucket = index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
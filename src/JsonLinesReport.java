@@ -0,0 +1,75 @@
+// Author: Sayeed Gulmahamad
+import java.io.IOException;
+import java.io.Writer;
+
+// This writes results as JSON Lines, one JSON object on every line
+// First object is the summary (type "summary"), then every row (type "pair", and "all" for the row of all floors)
+// Values that are not numbers are written as null
+public class JsonLinesReport implements ReportWriter {
+	private Writer _Writer;
+	private double _PrecisionPercentile;
+	private double _Confidence;
+
+	public JsonLinesReport(Writer writer,
+							Configuration configuration) {
+		_Writer = writer;
+		_PrecisionPercentile = configuration.PrecisionPercentile();
+		_Confidence = configuration.ConfidenceLevel();
+	}
+
+	public void Summary(long masterSeed,
+						int replication,
+						long replications,
+						String stopReason,
+						double[] intervals) throws IOException {
+		StringBuilder line = new StringBuilder("{\"type\":\"summary\"");
+		line.append(",\"masterSeed\":").append(masterSeed);
+		if (replication != Constants.INVALID_VALUE) {
+			line.append(",\"replication\":").append(replication);
+		}
+		line.append(",\"replications\":").append(replications);
+		if (stopReason != null) {
+			line.append(",\"stopped\":").append(Text(stopReason));
+		}
+		line.append(",\"confidence\":").append(_Confidence);
+		line.append(",\"precisionPercentile\":").append(_PrecisionPercentile);
+		if (intervals != null) {
+			line.append(",\"waitTimeAverage\":").append(Value(intervals[0]));
+			line.append(",\"waitTimeAverageHalfWidth\":").append(Value(intervals[1]));
+			line.append(",\"waitTimePercentile\":").append(Value(intervals[2]));
+			line.append(",\"waitTimePercentileHalfWidth\":").append(Value(intervals[3]));
+		}
+		_Writer.write(line.append("}\n").toString());
+	}
+
+	public void Row(String name,
+					int[] floors,
+					double[] values) throws IOException {
+		StringBuilder line = new StringBuilder("{\"type\":");
+		line.append(floors == null ? "\"all\"" : "\"pair\"");
+		line.append(",\"name\":").append(Text(name));
+		if (floors != null) {
+			line.append(",\"enterFirstFloor\":").append(floors[0]);
+			line.append(",\"enterLastFloor\":").append(floors[1]);
+			line.append(",\"leaveFirstFloor\":").append(floors[2]);
+			line.append(",\"leaveLastFloor\":").append(floors[3]);
+		}
+		line.append(",\"").append(Report.COLUMNS[Report.PEOPLE]).append("\":").append((long)values[Report.PEOPLE]);
+		for (int i = Report.PEOPLE + 1; i < values.length; ++i) {
+			line.append(",\"").append(Report.COLUMNS[i]).append("\":").append(Double.isFinite(values[i]) ? Report.Number(values[i]) : "null");
+		}
+		_Writer.write(line.append("}\n").toString());
+	}
+
+	private static String Value(double value) {
+		return Double.isFinite(value) ? Double.toString(value) : "null";
+	}
+	// Names and stop reasons are plain text, only quotes and backslashes have to be escaped
+	private static String Text(String text) {
+		return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	public void close() throws IOException {
+		_Writer.close();
+	}
+}
@@ -0,0 +1,129 @@
+// Author: Sayeed Gulmahamad
+import java.util.ArrayList;
+
+// This is a look-ahead dispatch strategy, it chooses the elevator whose route gets the lowest cost from the new stop (insertion cost)
+// Cost is the time added for everyone affected, summed over people:
+//	Wait of new people: moving time to the floor and time of stops before it (as in pickup time)
+//	Ride of new people: their leave floor is not known at the hall call, so they are counted to pass half of the stops after the floor
+//	Delay of people served after the floor: a new stop adds enter time for all of them, and the leave stop of new people adds leave time for about half
+// New people count as one person, since a hall call does not tell how many people are behind it
+// Elevators that can be assigned are the same as in pickup time dispatch, and a stopped elevator only costs its moving time
+
+// Stop plan of every elevator is kept as sums of stop times and people over floors (from the lowest floor up to every floor)
+// Plan is made again only when that elevator changes (its version changes), and elevators never pass a stop between changes
+// So any stretch of the route is two array reads, and a candidate only costs a few of them no matter the floors or people
+
+// Every choice is a flight recorder event when it is enabled, with elevators evaluated and cost of the chosen one
+public class LookAheadDispatcher implements DispatchStrategy {
+	private static final long CANNOT_ASSIGN = Constants.INVALID_VALUE;
+
+	private int _NumberOfFloors;
+	private long _EnterTime;
+	private long _LeaveTime;
+	// Stop plan of every elevator, element i is the sum over floors below floor i
+	private long[][] _StopTimes;
+	private int[][] _People;
+	// Elevator version for which its plan was made
+	private int[] _Versions;
+
+	public LookAheadDispatcher(Configuration configuration) {
+		int numberOfElevators = configuration.NumberOfElevators();
+		int numberOfFloors = configuration.NumberOfFloors();
+		_NumberOfFloors = numberOfFloors;
+		_EnterTime = configuration.ElevatorEnterTime();
+		_LeaveTime = configuration.ElevatorLeaveTime();
+		_StopTimes = new long[numberOfElevators][numberOfFloors + 1];
+		_People = new int[numberOfElevators][numberOfFloors + 1];
+		_Versions = new int[numberOfElevators];
+		for (int i = 0; i < numberOfElevators; ++i) {
+			_Versions[i] = Constants.INVALID_VALUE;
+		}
+	}
+
+	public Elevator Choose(ArrayList<Elevator> elevators,
+							int floor,
+							int direction,
+							long time) {
+		FlightEvents.Dispatch event = new FlightEvents.Dispatch();
+		event.begin();
+		Elevator bestElevator = null;
+		long bestCost = CANNOT_ASSIGN;
+		int candidates = 0;
+		for (int i = 0; i < elevators.size(); ++i) {
+			Elevator elevator = elevators.get(i);
+			// Elevators that cannot stop are skipped
+			if (!elevator.CanStop()) {
+				continue;
+			}
+			++candidates;
+			if (!elevator.CanAssign(floor, direction, time)) {
+				continue;
+			}
+			long cost = InsertionCost(elevator, floor, time);
+			if (bestCost == CANNOT_ASSIGN || cost < bestCost) {
+				bestElevator = elevator;
+				bestCost = cost;
+			}
+		}
+		if (event.shouldCommit()) {
+			event.floor = floor;
+			event.direction = direction;
+			event.candidates = candidates;
+			event.elevator = bestElevator == null ? Constants.INVALID_VALUE : bestElevator.Index();
+			event.cost = bestElevator == null ? 0 : Methods.FormatTime(bestCost);
+			event.commit();
+		}
+		return bestElevator;
+	}
+
+	// This calculates cost of adding a stop on floor to the route of elevator
+	// This method is only called for assignable pairs, so the floor is never behind the elevator
+	private long InsertionCost(Elevator elevator,
+								int floor,
+								long time) {
+		long movingTime = Math.abs(elevator.FloorPosition(floor) - elevator.Position(time));
+		if (elevator.IsStopped()) {
+			return movingTime;
+		}
+		int index = elevator.Index();
+		if (_Versions[index] != elevator.Version()) {
+			_Versions[index] = elevator.Version();
+			Plan(elevator);
+		}
+		long[] stopTimes = _StopTimes[index];
+		int[] people = _People[index];
+		int floorAhead = elevator.FloorAhead();
+		// Stop times before and after the floor, and people served until the floor (the floor included)
+		long stopTimeBefore;
+		long stopTimeAfter;
+		int peopleBefore;
+		if (elevator.Direction() == 1) {
+			stopTimeBefore = stopTimes[floor] - stopTimes[floorAhead];
+			stopTimeAfter = stopTimes[_NumberOfFloors] - stopTimes[floor + 1];
+			peopleBefore = people[floor + 1] - people[floorAhead];
+		} else {
+			stopTimeBefore = stopTimes[floorAhead + 1] - stopTimes[floor + 1];
+			stopTimeAfter = stopTimes[floor];
+			peopleBefore = people[floorAhead + 1] - people[floor];
+		}
+		long peopleAfter = elevator.NumberOfPeople() - peopleBefore;
+		long cost = movingTime + stopTimeBefore + stopTimeAfter / 2 + peopleAfter * _LeaveTime / 2;
+		// People already waiting on the floor make it a stop with people entering anyway
+		if (!elevator.IsNextPersonWaitingOnFloor(floor)) {
+			cost += peopleAfter * _EnterTime;
+		}
+		return cost;
+	}
+
+	// This makes stop plan of elevator from its people on every floor
+	private void Plan(Elevator elevator) {
+		long[] stopTimes = _StopTimes[elevator.Index()];
+		int[] people = _People[elevator.Index()];
+		for (int floor = 0; floor < _NumberOfFloors; ++floor) {
+			int waiting = elevator.WaitingPeople(floor);
+			int traveling = elevator.TravelingPeople(floor);
+			stopTimes[floor + 1] = stopTimes[floor] + (waiting != 0 ? _EnterTime : 0) + (traveling != 0 ? _LeaveTime : 0);
+			people[floor + 1] = people[floor] + waiting + traveling;
+		}
+	}
+}
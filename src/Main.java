@@ -1,38 +1,149 @@
-// Author: Sayeed Gulmahamad
-import java.io.*;
-public class Main {
-	public static void main(String[] args) {
-		System.out.format("Monte Carlo elevator simulation started for %d people%n", Constants.NUMBER_OF_SIMULATIONS * Constants.NUMBER_OF_PEOPLE);
-		long startMilliseconds = System.currentTimeMillis();
-
-		Statistic.Initialize();
-		System.out.println("Statistic initialized");
-
-		System.out.println("Algorithm started");
-		for (int i = 0; i < Constants.NUMBER_OF_SIMULATIONS; ++i) {
-			Algorithm algorithm = new Algorithm(Constants.NUMBER_OF_FLOORS,
-												Constants.NUMBER_OF_ELEVATORS,
-												Constants.NUMBER_OF_PEOPLE);
-			algorithm.Run();
-		}
-		System.out.println("Algorithm finished");
-
-		Statistic.Calculate();
-		System.out.println("Statistic calculated");
-
-		long endMilliseconds = System.currentTimeMillis();
-		long simulationMilliseconds = endMilliseconds - startMilliseconds;
-		System.out.format("Monte Carlo elevator simulation finished in %d milliseconds%n", simulationMilliseconds);
-		System.out.println("--------------------------------------------------");
-		System.out.println("Results:");
-		System.out.print(Statistic.GetOutput());
-		try {
-				PrintWriter output = new PrintWriter(new FileWriter("output.txt"));
-				output.print(Statistic.GetOutput());
-				output.close();
-			}
-			catch (IOException exception) {
-					exception.printStackTrace();
-				}
-			}
-		}
+// Author: Sayeed Gulmahamad
+import java.io.*;
+import java.util.function.Consumer;
+public class Main {
+	public static void main(String[] args) {
+		Configuration configuration;
+		try {
+			configuration = Configuration.Parse(args);
+		}
+		catch (IllegalArgumentException | IOException exception) {
+			System.out.println("ERROR: " + exception.getMessage());
+			System.exit(1);
+			return;
+		}
+		if (configuration.IsWorker()) {
+			RunWorker(configuration);
+			return;
+		}
+		if (configuration.IsMetrics()) {
+			try {
+				Metrics.Start(configuration);
+			}
+			catch (IOException exception) {
+				System.out.println("ERROR: " + exception.getMessage());
+				System.exit(1);
+				return;
+			}
+			if (configuration.MetricsPort() != Constants.INVALID_VALUE) {
+				System.out.format("Metrics are on http://localhost:%d/metrics%n", configuration.MetricsPort());
+			}
+		}
+		if (configuration.IsSweep()) {
+			RunSweep(configuration);
+		} else if (configuration.IsComparison()) {
+			RunComparison(configuration);
+		} else {
+			RunSimulation(configuration);
+		}
+	}
+
+	// Sweep and comparison results are written once and streamed to the console and to the output file at the same time
+	private static void WriteOutput(Configuration configuration,
+									Consumer<PrintWriter> output) {
+		System.out.flush();
+		try (PrintWriter writer = Report.OpenText(configuration)) {
+			writer.print(Seed(configuration));
+			output.accept(writer);
+			// Print writer does not throw, so errors are checked once at the end
+			if (writer.checkError()) {
+				throw new IOException("Results could not be written");
+			}
+		}
+		catch (IOException exception) {
+			exception.printStackTrace();
+		}
+	}
+
+	// Results are streamed to the console and to the output file (in its format) as they are made
+	private static void RunSimulation(Configuration configuration) {
+		if (configuration.TraceFile() != null) {
+			System.out.format("Monte Carlo elevator simulation started for people from %s%n", configuration.TraceFile());
+		} else {
+			System.out.format("Monte Carlo elevator simulation started for %d people%n", (long)configuration.NumberOfSimulations() * configuration.NumberOfPeople());
+		}
+		long startMilliseconds = System.currentTimeMillis();
+
+		System.out.format("Master seed is %d%n", configuration.MasterSeed());
+		if (configuration.NumberOfProcesses() > 1) {
+			System.out.format("Algorithm started on %d processes with %d workers each%n", configuration.NumberOfProcesses(), configuration.NumberOfWorkers());
+		} else {
+			System.out.format("Algorithm started on %d workers%n", configuration.NumberOfWorkers());
+		}
+		MonteCarlo monteCarlo = new MonteCarlo(configuration);
+		Statistic statistic = monteCarlo.Run();
+		System.out.println("Algorithm finished");
+
+		long endMilliseconds = System.currentTimeMillis();
+		long simulationMilliseconds = endMilliseconds - startMilliseconds;
+		System.out.format("Monte Carlo elevator simulation finished in %d milliseconds%n", simulationMilliseconds);
+		System.out.println("--------------------------------------------------");
+		System.out.println("Results:");
+		System.out.flush();
+		try (Report report = Report.Open(configuration)) {
+			monteCarlo.Report(report);
+			statistic.Report(report);
+		}
+		catch (IOException exception) {
+			exception.printStackTrace();
+		}
+		if (statistic.TimeSeries() != null) {
+			try {
+				statistic.TimeSeries().Export(configuration.TimeSeriesFile());
+			}
+			catch (IOException exception) {
+				exception.printStackTrace();
+			}
+		}
+	}
+
+	// Worker process only writes statistic snapshots, so any failure ends it with an error code
+	private static void RunWorker(Configuration configuration) {
+		try {
+			Worker.Run(configuration);
+		}
+		catch (IOException | RuntimeException exception) {
+			exception.printStackTrace();
+			System.exit(1);
+		}
+		System.exit(0);
+	}
+
+	// Master seed is written in results, so any run (or a single replication) can be repeated
+	private static String Seed(Configuration configuration) {
+		if (configuration.Replication() != Constants.INVALID_VALUE) {
+			return String.format("Master seed = %d Replication = %d%n", configuration.MasterSeed(), configuration.Replication());
+		}
+		return String.format("Master seed = %d%n", configuration.MasterSeed());
+	}
+
+	private static void RunSweep(Configuration configuration) {
+		Sweep sweep = new Sweep(configuration);
+		System.out.format("Monte Carlo elevator simulation sweep started for %d runs%n", sweep.NumberOfRuns());
+		long startMilliseconds = System.currentTimeMillis();
+
+		sweep.Run();
+
+		long endMilliseconds = System.currentTimeMillis();
+		long simulationMilliseconds = endMilliseconds - startMilliseconds;
+		System.out.format("Monte Carlo elevator simulation sweep finished in %d milliseconds%n", simulationMilliseconds);
+		System.out.println("--------------------------------------------------");
+		System.out.println("Results:");
+		WriteOutput(configuration, sweep::Write);
+	}
+
+	private static void RunComparison(Configuration configuration) {
+		Comparison comparison = new Comparison(configuration);
+		System.out.format("Monte Carlo elevator simulation comparison started for %d variants%n", comparison.NumberOfVariants());
+		long startMilliseconds = System.currentTimeMillis();
+
+		comparison.Run();
+
+		long endMilliseconds = System.currentTimeMillis();
+		long simulationMilliseconds = endMilliseconds - startMilliseconds;
+		System.out.format("Monte Carlo elevator simulation comparison finished in %d milliseconds%n", simulationMilliseconds);
+		System.out.println("--------------------------------------------------");
+		System.out.println("Results:");
+		WriteOutput(configuration, comparison::Write);
+	}
+}
@@ -1,164 +1,84 @@
-// Author: Sayeed Gulmahamad
-import java.util.ArrayList;
-import java.util.Random;
-
-// This contains all simulator utility methods
-public class Methods {
-	private static final Random _Random = new Random();
-
-	// Method for calculating average
-	public static float Average(float[] data) {
-		float total = 0;
-		if (data.length == 0) {
-			return total;
-		}
-		for (int i = 0; i < data.length; ++i) {
-			total += data[i];
-		}
-		return total / data.length;
-	}
-
-	// Method for calculating standard deviation
-	public static float StandardDeviation(float[] data,
-											float average) {
- 		float total = 0;
-		if (data.length == 0) {
-			return total;
-		}
-		for (int i = 0; i < data.length; ++i) {
-			total += Math.pow(data[i] - average, 2);
-		}
-		return (float)Math.sqrt(total / data.length);
-	}
-
-	// Method for generating random float between 0 and 1 by using exponential distribution
-	public static float NextFloatExponentialDistribution(float lambda) {
-		if (lambda == 0) {
-			return _Random.nextFloat();
-		}
-		return (int)(Math.ceil(-Math.log(_Random.nextDouble()) / lambda) * Constants.TIME_UNIT_CHUNKS);
-	}
-
-	// Method for generating random number from range excluding one value
-	// If excluded value should be used, it must be lower than bound
-	public static int NextInt(int bound,
-								int excludeValue) {
-		bound = excludeValue < bound ? bound - 1 : bound;
-		int value = _Random.nextInt(bound);
-		return value >= excludeValue ? value + 1 : value;
-	}
-
-	// Method for formating time from calculation view (with chunks) to statistic view (without them)
-	public static float FormatTime(float time) {
-		return time / Constants.TIME_UNIT_CHUNKS;
-	}
-
-
-
-	// Method for getting stop floor from elevator's data
-	// first flag is used to know "should first or last stop floor be used"
-	public static int StopFloor(ArrayList<Person> peopleWaiting,
-								ArrayList<Person> peopleTraveling,
-								float floor,
-								boolean first) {
-		// If the elevator is empty and moving, enter floor for first/last waiting person in next stop floor
-		if (peopleTraveling.size() == 0) {
-			return peopleWaiting.get(first ? 0 : peopleWaiting.size() - 1).EnterFloor();
-		}
-		// If the elevator carries people but no one is waiting for it, leave floor for first/last traveler is next
-		else if (peopleWaiting.size() == 0) {
-			return peopleTraveling.get(first ? 0 : peopleTraveling.size() - 1).LeaveFloor();
-		}
-		// If elevator carries people and is moving, check first/last waiting and traveling person
-		else {
-			if (Math.abs(peopleWaiting.get(first ? 0 : peopleWaiting.size() - 1).EnterFloor() - floor) > Math.abs(peopleTraveling.get(first ? 0 : peopleTraveling.size() - 1).LeaveFloor() - floor)) {
-				return peopleTraveling.get(first ? 0 : peopleTraveling.size() - 1).LeaveFloor();
-			} else {
-				return peopleWaiting.get(first ? 0 : peopleWaiting.size() - 1).EnterFloor();
-			}
-		}
-	}
-
-	// Method for returning all different floors for people
-	// waiting flag is used to know should "EnterFloor" or "LeaveFloor" be used
-	public static ArrayList<Integer> DifferentFloors(ArrayList<Person> people,
-													boolean waiting) {
-		ArrayList<Integer> floors = new ArrayList<Integer>();
-		if (people.size() == 0) {
-			return floors;
-		}
-		// First persons floor is always distinct since it is the first one added
-		floors.add(waiting ? people.get(0).EnterFloor() : people.get(0).LeaveFloor());
-		// Check everyones floor and only add ones different, the last one added
-		for (int i = 1; i < people.size(); ++i) {
-			int floor = waiting ? people.get(i).EnterFloor() : people.get(i).LeaveFloor();
-			if (floor != floors.get(floors.size() - 1)) {
-				floors.add(floor);
-			}
-		}
-		return floors;
-	}
-
-	// Method for returning all different floors before limit floor
-	// goingUp flag is used to know should ">=" or "<=" be used for level comparison
-	//		When elevator is in idle state, it cannot have any different floors
-	public static ArrayList<Integer> FilterDifferentFloors(ArrayList<Integer> differentFloors,
-															boolean goingUp,
-															int limitFloor) {
-		ArrayList<Integer> floors = new ArrayList<Integer>();
-		if (differentFloors.size() == 0) {
-			return floors;
-		}
-		for (int i = 0; i < differentFloors.size(); ++i) {
-			// For every floor, check if it comes after limit floor for given direction
-			int floor = differentFloors.get(i);
-			// Case for going up
-			if (goingUp &&
-				floor >= limitFloor) {
-				break;
-			}
-			// Case for going up
-			if (!goingUp &&
-				floor <= limitFloor) {
-				break;
-			}
-			// If it is before limit floor, add it to filtered floors
-			floors.add(floor);
-		}
-		return floors;
-	}
-
-	// Method for adding person in sorted waiting or traveling people list
-	// waiting flag is used to know should "EnterFloor" or "LeaveFloor" be compared
-	// goingUp flag is used to know should ">" or "<" be used for level comparison
-	//		When elevator is in idle state it cannot have any people waiting or traveling
-	public static void AddPersonSorted(ArrayList<Person> people,
-										Person person,
-										boolean waiting,
-										boolean goingUp) {
-		int index = 0;
-		for (int i = 0; i < people.size(); ++i) {
-			// First two cases are for people waiting (first going up second going down)
-			if (waiting && goingUp) {
-				if (people.get(i).EnterFloor() > person.EnterFloor()) {
-					break;
-				}
-			} else if (waiting && !goingUp) {
-				if (people.get(i).EnterFloor() < person.EnterFloor()) {
-					break;
-				}
-			// Last two cases are for people traveling (first going up second going down)
-			} else if (!waiting && goingUp) {
-				if (people.get(i).LeaveFloor() > person.LeaveFloor()) {
-					break;
-				}
-			} else {
-				if (people.get(i).LeaveFloor() < person.LeaveFloor()) {
-					break;
-				}
-			}
-			++index;
-		}
-		people.add(index, person);
-	}
-}
+// Author: Sayeed Gulmahamad
+import java.util.SplittableRandom;
+
+// This contains all simulator utility methods
+// Random methods take the generator as parameter so every replication can use its own
+public class Methods {
+	// Method for generating random time (in ticks) by using exponential distribution
+	// Time is rounded up to whole ticks (as in profile arrivals), so rates above one person per second are kept
+	// Without rate it is a random time within one second
+	public static long NextTimeExponentialDistribution(SplittableRandom random,
+														double lambda) {
+		if (lambda == 0) {
+			return random.nextInt(Constants.TIME_UNIT_CHUNKS);
+		}
+		return (long)Math.ceil(-Math.log(1 - random.nextDouble()) / lambda * Constants.TIME_UNIT_CHUNKS);
+	}
+
+	// Method for generating random number from range excluding one value
+	// If excluded value should be used, it must be lower than bound
+	public static int NextInt(SplittableRandom random,
+								int bound,
+								int excludeValue) {
+		bound = excludeValue < bound ? bound - 1 : bound;
+		int value = random.nextInt(bound);
+		return value >= excludeValue ? value + 1 : value;
+	}
+
+	// Method for formating time from calculation view (with chunks) to statistic view (without them)
+	public static float FormatTime(double time) {
+		return (float)(time / Constants.TIME_UNIT_CHUNKS);
+	}
+
+	// Method for getting quantile of the standard normal distribution (Acklam's approximation, relative error below 1.2e-9)
+	public static double NormalQuantile(double probability) {
+		final double[] a = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+		final double[] b = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01 };
+		final double[] c = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+		final double[] d = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00 };
+		final double low = 0.02425;
+		if (probability < low || probability > 1 - low) {
+			// Tails
+			double q = Math.sqrt(-2 * Math.log(probability < low ? probability : 1 - probability));
+			double x = (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) /
+						((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+			return probability < low ? x : -x;
+		}
+		double q = probability - 0.5;
+		double r = q * q;
+		return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q /
+				(((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+	}
+
+	// Method for getting quantile of Student's t distribution
+	// One and two degrees of freedom are exact, otherwise Cornish-Fisher expansion around the normal quantile is used
+	public static double StudentTQuantile(double probability,
+											long degrees) {
+		if (degrees == 1) {
+			return Math.tan(Math.PI * (probability - 0.5));
+		}
+		if (degrees == 2) {
+			return (2 * probability - 1) / Math.sqrt(2 * probability * (1 - probability));
+		}
+		double z = NormalQuantile(probability);
+		double z2 = z * z;
+		double n = degrees;
+		double g1 = (z2 + 1) * z / 4;
+		double g2 = ((5 * z2 + 16) * z2 + 3) * z / 96;
+		double g3 = (((3 * z2 + 19) * z2 + 17) * z2 - 15) * z / 384;
+		double g4 = ((((79 * z2 + 776) * z2 + 1482) * z2 - 1920) * z2 - 945) * z / 92160;
+		return z + (g1 + (g2 + (g3 + g4 / n) / n) / n) / n;
+	}
+
+	// Method for getting lower of two floors where any of them can be invalid
+	public static int MinFloor(int first,
+								int second) {
+		if (first == Constants.INVALID_VALUE) {
+			return second;
+		}
+		if (second == Constants.INVALID_VALUE) {
+			return first;
+		}
+		return Math.min(first, second);
+	}
+}
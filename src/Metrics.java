@@ -0,0 +1,242 @@
+// Author: Sayeed Gulmahamad
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// This collects live metrics of all replications running in this process
+// Metrics are shown in JMX (as OBJECT_NAME) and, if a port is given, in Prometheus text format on http://localhost:port/metrics
+// Counters are LongAdders, so replications running in parallel never wait for each other when they add to them
+// Algorithm only adds its counts every PUBLISH_MASK + 1 events, so the simulation itself does not touch shared counters
+// People pending is a gauge, it grows without bound when elevators can not keep up with arrivals
+// Elevator state times are in simulated time, summed over all elevators of all replications
+// Allocated bytes are summed over live threads of the virtual machine, so the rate is what matters
+public class Metrics implements MetricsMBean {
+	public static final String OBJECT_NAME = "ElevatorSimulation:type=Metrics";
+	public static final int PUBLISH_MASK = (1 << 14) - 1;
+	// Rates are calculated from two samples at least this far apart
+	private static final long SAMPLE_NANOSECONDS = 1000000000L;
+
+	// Metrics of this process, or null if metrics are not enabled
+	private static Metrics _Global = null;
+
+	private LongAdder _Events = new LongAdder();
+	private LongAdder _PeopleCreated = new LongAdder();
+	private LongAdder _PeopleCompleted = new LongAdder();
+	private LongAdder _PeoplePending = new LongAdder();
+	private LongAdder _ReplicationsRunning = new LongAdder();
+	private LongAdder _ReplicationsFinished = new LongAdder();
+	// Ticks spent in every elevator state, by ordinal
+	private LongAdder[] _StateTicks;
+
+	// Last sample and rates calculated from it
+	private long _SampleNanoseconds;
+	private long _SampleEvents;
+	private long _SamplePeopleCompleted;
+	private long _SampleAllocatedBytes;
+	private double _EventsPerSecond = 0;
+	private double _PeopleCompletedPerSecond = 0;
+	private double _AllocatedBytesPerSecond = 0;
+
+	private HttpServer _Server;
+
+	private Metrics() {
+		_StateTicks = new LongAdder[ElevatorState.values().length];
+		for (int i = 0; i < _StateTicks.length; ++i) {
+			_StateTicks[i] = new LongAdder();
+		}
+		_SampleNanoseconds = System.nanoTime();
+		_SampleAllocatedBytes = AllocatedBytes();
+	}
+
+	// This enables metrics of this process, registers them in JMX and starts HTTP endpoint if there is a port
+	public static synchronized Metrics Start(Configuration configuration) throws IOException {
+		if (_Global != null) {
+			return _Global;
+		}
+		Metrics metrics = new Metrics();
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+		}
+		catch (JMException exception) {
+			throw new IOException("Metrics can not be registered in JMX", exception);
+		}
+		if (configuration.MetricsPort() != Constants.INVALID_VALUE) {
+			// Endpoint is only local, and its threads do not keep the virtual machine running
+			metrics._Server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), configuration.MetricsPort()), 0);
+			metrics._Server.createContext("/metrics", exchange -> {
+				byte[] body = metrics.Prometheus().getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+				exchange.sendResponseHeaders(200, body.length);
+				try (OutputStream output = exchange.getResponseBody()) {
+					output.write(body);
+				}
+			});
+			metrics._Server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "Metrics");
+				thread.setDaemon(true);
+				return thread;
+			}));
+			metrics._Server.start();
+		}
+		_Global = metrics;
+		return metrics;
+	}
+
+	// Metrics of this process, or null if they are not enabled
+	public static Metrics Global() {
+		return _Global;
+	}
+
+	public void ReplicationStarted() {
+		_ReplicationsRunning.increment();
+	}
+	public void ReplicationFinished() {
+		_ReplicationsRunning.decrement();
+		_ReplicationsFinished.increment();
+	}
+	// Replication that was stopped before its end is no longer running, but it did not finish
+	public void ReplicationStopped() {
+		_ReplicationsRunning.decrement();
+	}
+	// This adds counts of a replication since it last added them, pending people and state ticks are changes too
+	public void Add(long events,
+					long peopleCreated,
+					long peopleCompleted,
+					long peoplePending,
+					long[] stateTicks) {
+		_Events.add(events);
+		_PeopleCreated.add(peopleCreated);
+		_PeopleCompleted.add(peopleCompleted);
+		_PeoplePending.add(peoplePending);
+		for (int i = 0; i < stateTicks.length; ++i) {
+			_StateTicks[i].add(stateTicks[i]);
+		}
+	}
+
+	// This takes a new sample if the last one is old enough and updates rates from it
+	private synchronized void Sample() {
+		long nanoseconds = System.nanoTime();
+		if (nanoseconds - _SampleNanoseconds < SAMPLE_NANOSECONDS) {
+			return;
+		}
+		double seconds = (nanoseconds - _SampleNanoseconds) / 1e9;
+		long events = _Events.sum();
+		long peopleCompleted = _PeopleCompleted.sum();
+		long allocatedBytes = AllocatedBytes();
+		_EventsPerSecond = (events - _SampleEvents) / seconds;
+		_PeopleCompletedPerSecond = (peopleCompleted - _SamplePeopleCompleted) / seconds;
+		// Bytes of threads that ended are not counted any more, so the rate can not go below zero
+		_AllocatedBytesPerSecond = Math.max(0, allocatedBytes - _SampleAllocatedBytes) / seconds;
+		_SampleNanoseconds = nanoseconds;
+		_SampleEvents = events;
+		_SamplePeopleCompleted = peopleCompleted;
+		_SampleAllocatedBytes = allocatedBytes;
+	}
+
+	// Bytes allocated by all live threads, or zero if the virtual machine does not measure it
+	private static long AllocatedBytes() {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+			return 0;
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemoryEnabled()) {
+			return 0;
+		}
+		long bytes = 0;
+		for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+			if (allocated > 0) {
+				bytes += allocated;
+			}
+		}
+		return bytes;
+	}
+
+	// This returns all metrics in Prometheus text format
+	private String Prometheus() {
+		Sample();
+		StringBuilder output = new StringBuilder();
+		Metric(output, "elevator_events_total", "counter", "Simulation events processed", _Events.sum());
+		Metric(output, "elevator_people_created_total", "counter", "People created", _PeopleCreated.sum());
+		Metric(output, "elevator_people_completed_total", "counter", "People that left their elevator", _PeopleCompleted.sum());
+		Metric(output, "elevator_people_pending", "gauge", "People waiting to be assigned to an elevator", _PeoplePending.sum());
+		Metric(output, "elevator_replications_running", "gauge", "Replications running", _ReplicationsRunning.sum());
+		Metric(output, "elevator_replications_finished_total", "counter", "Replications finished", _ReplicationsFinished.sum());
+		Metric(output, "elevator_events_per_second", "gauge", "Simulation events processed per second", getEventsPerSecond());
+		Metric(output, "elevator_people_completed_per_second", "gauge", "People completed per second", getPeopleCompletedPerSecond());
+		Metric(output, "elevator_allocated_bytes_per_second", "gauge", "Bytes allocated per second by the virtual machine", getAllocatedBytesPerSecond());
+		output.append("# HELP elevator_state_seconds_total Simulated time elevators spent in every state\n");
+		output.append("# TYPE elevator_state_seconds_total counter\n");
+		ElevatorState[] states = ElevatorState.values();
+		for (int i = 0; i < states.length; ++i) {
+			output.append("elevator_state_seconds_total{state=\"").append(states[i]).append("\"} ").append(StateSeconds(states[i])).append('\n');
+		}
+		return output.toString();
+	}
+	private static void Metric(StringBuilder output,
+								String name,
+								String type,
+								String help,
+								double value) {
+		output.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		output.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+		output.append(name).append(' ').append(value == Math.rint(value) ? Long.toString((long)value) : Double.toString(value)).append('\n');
+	}
+
+	private double StateSeconds(ElevatorState state) {
+		return (double)_StateTicks[state.ordinal()].sum() / Constants.TIME_UNIT_CHUNKS;
+	}
+
+	public long getEvents() {
+		return _Events.sum();
+	}
+	public long getPeopleCreated() {
+		return _PeopleCreated.sum();
+	}
+	public long getPeopleCompleted() {
+		return _PeopleCompleted.sum();
+	}
+	public long getPeoplePending() {
+		return _PeoplePending.sum();
+	}
+	public long getReplicationsRunning() {
+		return _ReplicationsRunning.sum();
+	}
+	public long getReplicationsFinished() {
+		return _ReplicationsFinished.sum();
+	}
+	public synchronized double getEventsPerSecond() {
+		Sample();
+		return _EventsPerSecond;
+	}
+	public synchronized double getPeopleCompletedPerSecond() {
+		Sample();
+		return _PeopleCompletedPerSecond;
+	}
+	public synchronized double getAllocatedBytesPerSecond() {
+		Sample();
+		return _AllocatedBytesPerSecond;
+	}
+	public double getIdleSeconds() {
+		return StateSeconds(ElevatorState.Idle);
+	}
+	public double getMovingUnstoppableSeconds() {
+		return StateSeconds(ElevatorState.MovingUnstoppable);
+	}
+	public double getPeopleEnteringSeconds() {
+		return StateSeconds(ElevatorState.PeopleEntering);
+	}
+	public double getMovingStoppableSeconds() {
+		return StateSeconds(ElevatorState.MovingStoppable);
+	}
+	public double getPeopleLeavingSeconds() {
+		return StateSeconds(ElevatorState.PeopleLeaving);
+	}
+}
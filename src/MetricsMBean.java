@@ -0,0 +1,19 @@
+// Author: Sayeed Gulmahamad
+// This is the management interface of simulator metrics, as seen in JMX clients (jconsole, VisualVM)
+// Rates are per second of real time, and elevator state times are in seconds of simulated time
+public interface MetricsMBean {
+	long getEvents();
+	long getPeopleCreated();
+	long getPeopleCompleted();
+	long getPeoplePending();
+	long getReplicationsRunning();
+	long getReplicationsFinished();
+	double getEventsPerSecond();
+	double getPeopleCompletedPerSecond();
+	double getAllocatedBytesPerSecond();
+	double getIdleSeconds();
+	double getMovingUnstoppableSeconds();
+	double getPeopleEnteringSeconds();
+	double getMovingStoppableSeconds();
+	double getPeopleLeavingSeconds();
+}
@@ -0,0 +1,311 @@
+// Author: Sayeed Gulmahamad
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// This runs all Monte Carlo replications of the simulation
+// Every replication is a separate algorithm with its own random generators and statistic
+// Random generators of a replication are made from master seed and replication index
+// If only one replication is chosen in configuration, only that one is run
+// Replications are distributed to a fixed pool of workers and run in parallel
+// Statistics of replications are merged into a single one as they finish, in order of replication index
+// Averages of every replication are also kept, which gives confidence intervals of the results (precision)
+// With target precision, replications are started until the precision is reached or the budget is spent (convergence)
+// With more than one process, replications are run by worker processes instead of threads (coordinator collects them)
+// With checkpoint file, merged statistic is written to it every few seconds and at the end, and a resumed run starts after its replications
+public class MonteCarlo {
+	private Configuration _Configuration;
+	private int _NumberOfSimulations;
+	private int _NumberOfWorkers;
+	private boolean _IsConvergence;
+
+	// Wait time average and percentile of every replication
+	private Accumulator _WaitTimeAverages;
+	private Accumulator _WaitTimePercentiles;
+	private String _StopReason;
+	// Time of the last checkpoint
+	private long _CheckpointMilliseconds;
+
+	public MonteCarlo(Configuration configuration) {
+		_Configuration = configuration;
+		// Every replication would replay the same trace, so it is run only once
+		boolean isSingle = configuration.Replication() != Constants.INVALID_VALUE || configuration.TraceFile() != null;
+		_NumberOfSimulations = isSingle ? 1 : configuration.NumberOfSimulations();
+		_IsConvergence = configuration.IsConvergence();
+		if (_IsConvergence) {
+			// Number of simulations is only the minimum, so all workers are used
+			_NumberOfSimulations = Math.max(_NumberOfSimulations, Constants.MINIMUM_CONVERGENCE_SIMULATIONS);
+			_NumberOfWorkers = Math.max(1, configuration.NumberOfWorkers());
+		} else {
+			_NumberOfWorkers = Math.max(1, Math.min(configuration.NumberOfWorkers(), _NumberOfSimulations));
+		}
+	}
+
+	// Runs all replications and returns merged statistic
+	public Statistic Run() {
+		long startMilliseconds = System.currentTimeMillis();
+		_WaitTimeAverages = new Accumulator();
+		_WaitTimePercentiles = new Accumulator();
+		_StopReason = null;
+		_CheckpointMilliseconds = startMilliseconds;
+		Statistic statistic = Resume();
+		if (_Configuration.NumberOfProcesses() > 1) {
+			return RunProcesses(statistic);
+		}
+		// Resumed convergence may have been finished already
+		if (_IsConvergence && _WaitTimeAverages.Count() > 0 && IsFinished(startMilliseconds)) {
+			return statistic;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(_NumberOfWorkers);
+		try {
+			// Twice as many replications as workers are started ahead, so workers do not wait for a slow replication that is merged first
+			ArrayDeque<Future<Statistic>> replications = new ArrayDeque<Future<Statistic>>();
+			int started = (int)_WaitTimeAverages.Count();
+			while (true) {
+				while (replications.size() < 2 * _NumberOfWorkers && CanStart(started)) {
+					int replication = _Configuration.Replication() == Constants.INVALID_VALUE ? started : _Configuration.Replication();
+					replications.add(executor.submit(new Replication(_Configuration, replication)));
+					++started;
+				}
+				if (replications.isEmpty()) {
+					break;
+				}
+				// Merging is done in submission order so the result does not depend on scheduling
+				Merge(statistic, replications.poll().get());
+				// Replications that are still running after convergence are dropped, so merged ones always go from the first one
+				// Shutting the executor down interrupts them, and they stop within a few thousand events (see Algorithm.Run)
+				if (_IsConvergence && IsFinished(startMilliseconds)) {
+					break;
+				}
+				Checkpoint(statistic, false);
+			}
+			Checkpoint(statistic, true);
+			return statistic;
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Monte Carlo simulation interrupted", exception);
+		}
+		catch (ExecutionException exception) {
+			throw new RuntimeException("Monte Carlo replication failed", exception.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// Runs all replications in worker processes and returns merged statistic
+	private Statistic RunProcesses(Statistic statistic) {
+		int merged = (int)_WaitTimeAverages.Count();
+		if (merged >= _NumberOfSimulations) {
+			return statistic;
+		}
+		int[] replications = new int[_NumberOfSimulations - merged];
+		for (int i = 0; i < replications.length; ++i) {
+			replications[i] = _Configuration.Replication() == Constants.INVALID_VALUE ? merged + i : _Configuration.Replication();
+		}
+		try (Coordinator coordinator = new Coordinator(_Configuration, replications)) {
+			for (int i = 0; i < replications.length; ++i) {
+				Merge(statistic, coordinator.Take(replications[i]));
+				Checkpoint(statistic, false);
+			}
+			Checkpoint(statistic, true);
+			return statistic;
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Monte Carlo simulation interrupted", exception);
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	private void Merge(Statistic statistic,
+						Statistic replication) {
+		statistic.Merge(replication);
+		_WaitTimeAverages.Add(replication.WaitTimeAverage());
+		_WaitTimePercentiles.Add(replication.WaitTimePercentile(_Configuration.PrecisionPercentile()));
+	}
+
+	// This returns statistic of replications merged before the checkpoint, or an empty one without it
+	private Statistic Resume() {
+		String fileName = _Configuration.CheckpointFile();
+		if (!_Configuration.IsResume() || !Files.exists(Paths.get(fileName))) {
+			return new Statistic(_Configuration.NumberOfFloors(), _Configuration.Zones(), TimeSeries.Create(_Configuration));
+		}
+		try {
+			Checkpoint checkpoint = Checkpoint.Read(fileName);
+			checkpoint.Check(_Configuration);
+			System.out.format("Resuming after %d replications from checkpoint %s%n", checkpoint.NumberOfReplications(), fileName);
+			_WaitTimeAverages = checkpoint.WaitTimeAverages();
+			_WaitTimePercentiles = checkpoint.WaitTimePercentiles();
+			return checkpoint.Statistic();
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	// This writes a checkpoint if enough time passed since the last one, and always at the end
+	private void Checkpoint(Statistic statistic,
+							boolean isLast) {
+		if (_Configuration.CheckpointFile() == null) {
+			return;
+		}
+		long milliseconds = System.currentTimeMillis();
+		if (!isLast && milliseconds - _CheckpointMilliseconds < _Configuration.CheckpointSeconds() * 1000) {
+			return;
+		}
+		try {
+			new Checkpoint(_Configuration, _WaitTimeAverages, _WaitTimePercentiles, statistic).Write(_Configuration.CheckpointFile());
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+		_CheckpointMilliseconds = milliseconds;
+	}
+
+	// Without convergence, all simulations are run
+	// With convergence, replications are started while there is people budget left
+	private boolean CanStart(int started) {
+		if (!_IsConvergence) {
+			return started < _NumberOfSimulations;
+		}
+		if (_Configuration.MaxPeople() != Constants.INVALID_VALUE &&
+			(long)started * _Configuration.NumberOfPeople() >= _Configuration.MaxPeople()) {
+			return false;
+		}
+		return _StopReason == null;
+	}
+
+	// This checks if merged replications reached the target precision or if the budget is spent
+	private boolean IsFinished(long startMilliseconds) {
+		long people = _WaitTimeAverages.Count() * _Configuration.NumberOfPeople();
+		if (_WaitTimeAverages.Count() >= _NumberOfSimulations &&
+			IsPrecise(_WaitTimeAverages, _Configuration.Precision()) &&
+			IsPrecise(_WaitTimePercentiles, _Configuration.PercentilePrecision())) {
+			_StopReason = "target precision reached";
+		} else if (_Configuration.MaxPeople() != Constants.INVALID_VALUE && people >= _Configuration.MaxPeople()) {
+			_StopReason = "people budget spent";
+		} else if (_Configuration.MaxSeconds() != Constants.INVALID_VALUE &&
+					System.currentTimeMillis() - startMilliseconds >= _Configuration.MaxSeconds() * 1000) {
+			_StopReason = "time budget spent";
+		}
+		return _StopReason != null;
+	}
+
+	private boolean IsPrecise(Accumulator values,
+								double precision) {
+		if (precision == Constants.INVALID_VALUE) {
+			return true;
+		}
+		return values.HalfWidth(_Configuration.ConfidenceLevel()) <= precision;
+	}
+
+	// This writes number of merged replications and confidence intervals of wait time, after the simulation is run
+	// Confidence intervals are made from replication results, they can not be made from a single replication
+	public void Report(ReportWriter writer) throws IOException {
+		double[] intervals = null;
+		if (_WaitTimeAverages.Count() >= 2) {
+			double confidence = _Configuration.ConfidenceLevel();
+			intervals = new double[] {
+				_WaitTimeAverages.Average(), _WaitTimeAverages.HalfWidth(confidence),
+				_WaitTimePercentiles.Average(), _WaitTimePercentiles.HalfWidth(confidence)
+			};
+		}
+		writer.Summary(_Configuration.MasterSeed(), _Configuration.Replication(), _WaitTimeAverages.Count(), _StopReason, intervals);
+	}
+
+	// This is a single replication run by one of the workers
+	private static class Replication implements Callable<Statistic> {
+		private Configuration _Configuration;
+		private int _Replication;
+
+		public Replication(Configuration configuration,
+							int replication) {
+			_Configuration = configuration;
+			_Replication = replication;
+		}
+
+		// Statistic of a replication that was stopped by interruption is not whole, so it is never returned
+		public Statistic call() throws InterruptedException {
+			Statistic statistic = Replicate(_Configuration, _Replication);
+			if (Thread.interrupted()) {
+				throw new InterruptedException("Replication " + _Replication + " was stopped");
+			}
+			return statistic;
+		}
+	}
+
+	// This runs one replication in the current thread and returns its statistic
+	// The same replication always gets the same people (arrival times and floors), no matter the other settings
+	// That is because people are made only from their own random generators, which dispatching never uses
+	public static Statistic Replicate(Configuration configuration,
+										int replication) {
+		if (configuration.EventFile() == null) {
+			Algorithm algorithm = new Algorithm(configuration,
+												Arrivals(configuration, replication),
+												DispatchStrategy.Create(configuration),
+												null,
+												Metrics.Global());
+			Run(algorithm, replication);
+			return algorithm.Statistic();
+		}
+		try (EventRecorder recorder = new EventRecorder(EventRecorder.FileName(configuration.EventFile(), replication), replication)) {
+			Algorithm algorithm = new Algorithm(configuration,
+												Arrivals(configuration, replication),
+												DispatchStrategy.Create(configuration),
+												recorder,
+												Metrics.Global());
+			Run(algorithm, replication);
+			if (recorder.Dropped() != 0) {
+				System.out.format("WARNING: %d events of replication %d were dropped because recording fell behind%n", recorder.Dropped(), replication);
+			}
+			return algorithm.Statistic();
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	// Replication is a flight recorder event when it is enabled
+	private static void Run(Algorithm algorithm,
+							int replication) {
+		FlightEvents.Replication event = new FlightEvents.Replication();
+		long startNanoseconds = System.nanoTime();
+		event.begin();
+		algorithm.Run();
+		event.end();
+		if (event.shouldCommit()) {
+			event.replication = replication;
+			event.people = algorithm.Statistic().NumberOfPeople();
+			event.peoplePerSecond = event.people / Math.max(1e-9, (System.nanoTime() - startNanoseconds) / 1e9);
+			event.commit();
+		}
+	}
+
+	// People are replayed from trace file if there is one, otherwise they are random (from traffic profile if there is one)
+	private static ArrivalSource Arrivals(Configuration configuration,
+											int replication) {
+		if (configuration.Profile() != null) {
+			return new ProfileArrivals(configuration, new RandomStreams(configuration.MasterSeed(), replication));
+		}
+		if (configuration.TraceFile() == null) {
+			return new RandomArrivals(configuration, new RandomStreams(configuration.MasterSeed(), replication));
+		}
+		try {
+			return new TraceArrivals(configuration.TraceFile());
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+// Author: Sayeed Gulmahamad
+import java.util.Arrays;
+
+// This keeps all people of one replication in parallel arrays (structure of arrays), and a person is an index in them
+// Person is a passive component in Elevator-Person relationship, it can only enter and leave elevator
+// Elevator entering time is recorded, and after leaving, person is passed to statistics and its index is freed
+// Freed indices are used again, so arrays only grow to the largest number of people in the building at the same time
+// Every person is in at most one floor queue at a time, so floor queues link people through the next array
+public class PersonPool {
+	private static final int INITIAL_CAPACITY = 256;
+
+	private long[] _CreateTimes;
+	private long[] _EnterTimes;
+	private int[] _EnterFloors;
+	private int[] _LeaveFloors;
+	// Person number in order of creation within replication (index can belong to many people one after another)
+	private int[] _Numbers;
+	// Next person in the same floor queue, or next free index for freed people
+	private int[] _Next;
+	// Number of indices ever used and the first free index
+	private int _Size = 0;
+	private int _FirstFree = Constants.INVALID_VALUE;
+
+	public PersonPool() {
+		_CreateTimes = new long[INITIAL_CAPACITY];
+		_EnterTimes = new long[INITIAL_CAPACITY];
+		_EnterFloors = new int[INITIAL_CAPACITY];
+		_LeaveFloors = new int[INITIAL_CAPACITY];
+		_Numbers = new int[INITIAL_CAPACITY];
+		_Next = new int[INITIAL_CAPACITY];
+	}
+
+	// This creates person and returns its index
+	public int Create(int number,
+						long createTime,
+						int enterFloor,
+						int leaveFloor) {
+		if (enterFloor == leaveFloor) {
+			System.out.println("ERROR: Person with same enter and leave level");
+		}
+		int person = _FirstFree;
+		if (person != Constants.INVALID_VALUE) {
+			_FirstFree = _Next[person];
+		} else {
+			if (_Size == _Numbers.length) {
+				Grow();
+			}
+			person = _Size++;
+		}
+		_Numbers[person] = number;
+		_CreateTimes[person] = createTime;
+		_EnterFloors[person] = enterFloor;
+		_LeaveFloors[person] = leaveFloor;
+		_Next[person] = Constants.INVALID_VALUE;
+		return person;
+	}
+
+	private void Grow() {
+		int capacity = 2 * _Numbers.length;
+		_CreateTimes = Arrays.copyOf(_CreateTimes, capacity);
+		_EnterTimes = Arrays.copyOf(_EnterTimes, capacity);
+		_EnterFloors = Arrays.copyOf(_EnterFloors, capacity);
+		_LeaveFloors = Arrays.copyOf(_LeaveFloors, capacity);
+		_Numbers = Arrays.copyOf(_Numbers, capacity);
+		_Next = Arrays.copyOf(_Next, capacity);
+	}
+
+	public int Number(int person) {
+		return _Numbers[person];
+	}
+	public int EnterFloor(int person) {
+		return _EnterFloors[person];
+	}
+	public int LeaveFloor(int person) {
+		return _LeaveFloors[person];
+	}
+	public int Direction(int person) {
+		return _LeaveFloors[person] > _EnterFloors[person] ? 1 : -1;
+	}
+
+	// These link people in floor queues
+	public int Next(int person) {
+		return _Next[person];
+	}
+	public void SetNext(int person,
+						int next) {
+		_Next[person] = next;
+	}
+
+	public void EnterElevator(int person,
+								long time) {
+		_EnterTimes[person] = time;
+	}
+	// Person is passed to statistic and freed, so its index must not be used after this
+	public void LeaveElevator(int person,
+								long time,
+								Statistic statistic) {
+		statistic.Add(_EnterFloors[person],
+						_LeaveFloors[person],
+						_CreateTimes[person],
+						_EnterTimes[person] - _CreateTimes[person],
+						time - _EnterTimes[person]);
+		_Next[person] = _FirstFree;
+		_FirstFree = person;
+	}
+}
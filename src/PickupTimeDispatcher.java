@@ -0,0 +1,115 @@
+// Author: Sayeed Gulmahamad
+import java.util.ArrayList;
+
+// This is the default dispatch strategy, it chooses the elevator that would collect people the soonest
+// Elevators that cannot be stopped are never chosen
+// Stopped elevators can always be chosen, others only if going in the same direction and not passed the floor yet
+// Pickup time is the moving time to the floor and time for people entering and leaving on stop floors before it
+
+// Pickup time is cached for every elevator, floor and direction
+// Cached times of an elevator are dropped only when that elevator changes (its version changes)
+// Moving elevator changes position with time, so its cached times are also dropped on every new event time
+
+// Every choice is a flight recorder event when it is enabled, with elevators evaluated and pickup time of the chosen one
+public class PickupTimeDispatcher implements DispatchStrategy {
+	private static final long CANNOT_ASSIGN = Constants.INVALID_VALUE;
+
+	private int _NumberOfFloors;
+	private long _EnterTime;
+	private long _LeaveTime;
+	// Cached pickup times for every elevator, indexed by floor and direction
+	private long[][] _Times;
+	// Generation in which every cached time was calculated, cached time is valid only for current generation
+	private int[][] _TimeGenerations;
+	private int[] _Generations;
+	// Elevator version and time for which current generation is valid
+	private int[] _Versions;
+	private long[] _VersionTimes;
+
+	public PickupTimeDispatcher(Configuration configuration) {
+		int numberOfElevators = configuration.NumberOfElevators();
+		int numberOfFloors = configuration.NumberOfFloors();
+		_NumberOfFloors = numberOfFloors;
+		_EnterTime = configuration.ElevatorEnterTime();
+		_LeaveTime = configuration.ElevatorLeaveTime();
+		_Times = new long[numberOfElevators][2 * numberOfFloors];
+		_TimeGenerations = new int[numberOfElevators][2 * numberOfFloors];
+		_Generations = new int[numberOfElevators];
+		_Versions = new int[numberOfElevators];
+		_VersionTimes = new long[numberOfElevators];
+		for (int i = 0; i < numberOfElevators; ++i) {
+			// Generation starts above cached ones so nothing is cached in the beginning
+			_Generations[i] = 1;
+			_Versions[i] = Constants.INVALID_VALUE;
+		}
+	}
+
+	public Elevator Choose(ArrayList<Elevator> elevators,
+							int floor,
+							int direction,
+							long time) {
+		FlightEvents.Dispatch event = new FlightEvents.Dispatch();
+		event.begin();
+		Elevator bestElevator = null;
+		long bestTime = CANNOT_ASSIGN;
+		int candidates = 0;
+		for (int i = 0; i < elevators.size(); ++i) {
+			Elevator elevator = elevators.get(i);
+			// Elevators that cannot stop are skipped
+			if (!elevator.CanStop()) {
+				continue;
+			}
+			++candidates;
+			long pickupTime = PickupTime(elevator, floor, direction, time);
+			if (pickupTime != CANNOT_ASSIGN &&
+				(bestTime == CANNOT_ASSIGN || pickupTime < bestTime)) {
+				bestElevator = elevator;
+				bestTime = pickupTime;
+			}
+		}
+		if (event.shouldCommit()) {
+			event.floor = floor;
+			event.direction = direction;
+			event.candidates = candidates;
+			event.elevator = bestElevator == null ? Constants.INVALID_VALUE : bestElevator.Index();
+			event.cost = bestElevator == null ? 0 : Methods.FormatTime(bestTime);
+			event.commit();
+		}
+		return bestElevator;
+	}
+
+	// This returns cached pickup time or calculates it if elevator changed since it was cached
+	private long PickupTime(Elevator elevator,
+							int floor,
+							int direction,
+							long time) {
+		int index = elevator.Index();
+		if (_Versions[index] != elevator.Version() ||
+			(elevator.IsMoving() && _VersionTimes[index] != time)) {
+			_Versions[index] = elevator.Version();
+			_VersionTimes[index] = time;
+			++_Generations[index];
+		}
+		int key = direction == 1 ? floor : _NumberOfFloors + floor;
+		if (_TimeGenerations[index][key] != _Generations[index]) {
+			_TimeGenerations[index][key] = _Generations[index];
+			_Times[index][key] = elevator.CanAssign(floor, direction, time) ? CalculateTime(elevator, floor, time) : CANNOT_ASSIGN;
+		}
+		return _Times[index][key];
+	}
+
+	// This calculates the time it would take for elevator to collect people from floor
+	// This method is only called for assignable pairs
+	private long CalculateTime(Elevator elevator,
+										int floor,
+										long time) {
+		long pickupTime = 0;
+		// Add moving time
+		pickupTime += Math.abs(elevator.FloorPosition(floor) - elevator.Position(time));
+		// Add time for people entering before person
+		pickupTime += elevator.WaitStopFloorsBeforeEnter(floor) * _EnterTime;
+		// Add time for people leaving before person
+		pickupTime += elevator.TravelStopFloorsBeforeEnter(floor) * _LeaveTime;
+		return pickupTime;
+	}
+}
@@ -0,0 +1,89 @@
+// Author: Sayeed Gulmahamad
+import java.util.SplittableRandom;
+
+// This creates random arrivals whose rate and floors change with time as given by a traffic profile (non-homogeneous Poisson arrivals)
+// Arrivals are made by thinning: candidates come at the highest rate of the current period and are kept with probability rate / highest rate
+// Highest rate is only of the current period, so periods with constant rate keep every candidate and need no second random number
+// Candidate after the end of its period is dropped and the next one starts from the period end, exponential times have no memory so this is exact
+// Enter and leave floors are taken from the alias table of the period in constant time, or are uniform if the period has no pairs
+// Times and floors have separate random generators as in random arrivals, so the same replication always gets the same people
+public class ProfileArrivals implements ArrivalSource {
+	private RandomStreams _Random;
+	private TrafficProfile _Profile;
+	// Alias table of pairs of every period, null for uniform floors (shared with other replications)
+	private AliasTable[] _Tables;
+	private int _NumberOfFloors;
+	private int _PeopleToCreate;
+	// Period and time in seconds of the last candidate
+	private int _Period = 0;
+	private double _Seconds = 0;
+
+	private long _Time = Constants.INVALID_TIME;
+	private int _EnterFloor;
+	private int _LeaveFloor;
+
+	public ProfileArrivals(Configuration configuration,
+							RandomStreams random) {
+		_Random = random;
+		_Profile = configuration.Profile();
+		_NumberOfFloors = configuration.NumberOfFloors();
+		_Tables = _Profile.Tables(_NumberOfFloors);
+		_PeopleToCreate = configuration.NumberOfPeople();
+	}
+
+	public boolean Next() {
+		if (_PeopleToCreate == 0 || !NextTime()) {
+			_Time = Constants.INVALID_TIME;
+			return false;
+		}
+		--_PeopleToCreate;
+		AliasTable table = _Tables[_Period];
+		if (table == null) {
+			_EnterFloor = Methods.NextInt(_Random.Floor(), _NumberOfFloors, _NumberOfFloors);
+			_LeaveFloor = Methods.NextInt(_Random.Floor(), _NumberOfFloors, _EnterFloor);
+		} else {
+			int pair = table.Next(_Random.Floor());
+			_EnterFloor = pair / _NumberOfFloors;
+			_LeaveFloor = pair % _NumberOfFloors;
+		}
+		return true;
+	}
+
+	// This moves to the next kept candidate and returns false if rate stays zero after it
+	// Time is rounded up to whole ticks, so arrivals are never earlier than their candidates
+	private boolean NextTime() {
+		SplittableRandom random = _Random.Arrival();
+		while (true) {
+			double end = _Profile.Start(_Period + 1);
+			double maxRate = _Profile.MaxRate(_Period);
+			if (maxRate == 0) {
+				if (end == Double.POSITIVE_INFINITY) {
+					return false;
+				}
+				_Seconds = end;
+				++_Period;
+				continue;
+			}
+			_Seconds -= Math.log(1 - random.nextDouble()) / maxRate;
+			if (_Seconds >= end) {
+				_Seconds = end;
+				++_Period;
+				continue;
+			}
+			if (!_Profile.IsInterpolated() || random.nextDouble() * maxRate < _Profile.Rate(_Period, _Seconds)) {
+				_Time = (long)Math.ceil(_Seconds * Constants.TIME_UNIT_CHUNKS);
+				return true;
+			}
+		}
+	}
+
+	public long Time() {
+		return _Time;
+	}
+	public int EnterFloor() {
+		return _EnterFloor;
+	}
+	public int LeaveFloor() {
+		return _LeaveFloor;
+	}
+}
@@ -0,0 +1,49 @@
+// Author: Sayeed Gulmahamad
+// This creates random arrivals, first one at time zero
+// Time between arrivals has exponential distribution, and enter and leave floors are uniform (different from each other)
+// Times and floors have separate random generators, so the same replication always gets the same people
+public class RandomArrivals implements ArrivalSource {
+	private RandomStreams _Random;
+	private int _NumberOfFloors;
+	// People created per second
+	private double _ArrivalRate;
+	private int _PeopleToCreate;
+
+	private long _Time = Constants.INVALID_TIME;
+	private int _EnterFloor;
+	private int _LeaveFloor;
+
+	public RandomArrivals(Configuration configuration,
+							RandomStreams random) {
+		_Random = random;
+		_NumberOfFloors = configuration.NumberOfFloors();
+		_ArrivalRate = configuration.ArrivalRate();
+		_PeopleToCreate = configuration.NumberOfPeople();
+	}
+
+	public boolean Next() {
+		if (_PeopleToCreate == 0) {
+			_Time = Constants.INVALID_TIME;
+			return false;
+		}
+		--_PeopleToCreate;
+		if (_Time == Constants.INVALID_TIME) {
+			_Time = 0;
+		} else {
+			_Time += Methods.NextTimeExponentialDistribution(_Random.Arrival(), _ArrivalRate);
+		}
+		_EnterFloor = Methods.NextInt(_Random.Floor(), _NumberOfFloors, _NumberOfFloors);
+		_LeaveFloor = Methods.NextInt(_Random.Floor(), _NumberOfFloors, _EnterFloor);
+		return true;
+	}
+
+	public long Time() {
+		return _Time;
+	}
+	public int EnterFloor() {
+		return _EnterFloor;
+	}
+	public int LeaveFloor() {
+		return _LeaveFloor;
+	}
+}
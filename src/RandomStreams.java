@@ -0,0 +1,37 @@
+// Author: Sayeed Gulmahamad
+import java.util.SplittableRandom;
+
+// This contains random generators of a single replication, one for every purpose
+// Generators are made only from master seed and replication index, so any replication can be run again alone
+// Every purpose has its own generator, so changing how one of them is used does not change the others
+// Generators are not shared between replications, so there is no contention between threads
+public class RandomStreams {
+	// Used for spreading replication indices over all seeds (golden ratio of 64 bit numbers)
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	// Generator for times between people arrivals
+	private SplittableRandom _Arrival;
+	// Generator for enter and leave floors
+	private SplittableRandom _Floor;
+
+	public RandomStreams(long masterSeed,
+							int replication) {
+		SplittableRandom random = new SplittableRandom(Mix(masterSeed + (replication + 1) * GOLDEN_GAMMA));
+		_Arrival = random.split();
+		_Floor = random.split();
+	}
+
+	public SplittableRandom Arrival() {
+		return _Arrival;
+	}
+	public SplittableRandom Floor() {
+		return _Floor;
+	}
+
+	// This mixes bits of a number so that close numbers give unrelated seeds (Stafford variant 13)
+	private static long Mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+}
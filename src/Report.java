@@ -0,0 +1,166 @@
+// Author: Sayeed Gulmahamad
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// This writes results of a simulation to the console as text and to the output file in the chosen format at the same time
+// Every row is calculated once and given to both writers, and both of them stream it to a buffered file or console
+// Formats are text (as always shown), CSV, JSON Lines and binary
+// Sweep and comparison results are only text, so they are written once to a writer that streams to both the file and the console
+public class Report implements ReportWriter {
+	public static final String TEXT = "text";
+	public static final String CSV = "csv";
+	public static final String JSONL = "jsonl";
+	public static final String BINARY = "binary";
+	public static final String[] FORMATS = { TEXT, CSV, JSONL, BINARY };
+
+	// Percentiles shown for wait and travel times
+	public static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+	public static final String[] PERCENTILE_NAMES = { "P50", "P90", "P99", "P99.9" };
+
+	// Values of a row, times are in seconds and share is percentage of all people
+	public static final int PEOPLE = 0;
+	public static final int SHARE = 1;
+	public static final int WAIT_TIME_AVERAGE = 2;
+	public static final int WAIT_TIME_STANDARD_DEVIATION = 3;
+	public static final int WAIT_TIME_PERCENTILES = 4;
+	public static final int WAIT_TIME_MAX = WAIT_TIME_PERCENTILES + PERCENTILES.length;
+	public static final int TRAVEL_TIME_AVERAGE = WAIT_TIME_MAX + 1;
+	public static final int TRAVEL_TIME_STANDARD_DEVIATION = TRAVEL_TIME_AVERAGE + 1;
+	public static final int TRAVEL_TIME_PERCENTILES = TRAVEL_TIME_STANDARD_DEVIATION + 1;
+	public static final int TRAVEL_TIME_MAX = TRAVEL_TIME_PERCENTILES + PERCENTILES.length;
+	public static final String[] COLUMNS = Columns();
+
+	private ReportWriter _Console;
+	private ReportWriter _File;
+
+	private Report(ReportWriter console,
+					ReportWriter file) {
+		_Console = console;
+		_File = file;
+	}
+
+	// This opens output file of configuration in its format, and the console
+	public static Report Open(Configuration configuration) throws IOException {
+		String fileName = configuration.OutputFile();
+		ReportWriter file;
+		if (configuration.OutputFormat().equals(BINARY)) {
+			FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			file = new BinaryReport(new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)));
+		} else {
+			Writer writer = Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8);
+			switch (configuration.OutputFormat()) {
+			case CSV:
+				file = new CsvReport(writer);
+				break;
+			case JSONL:
+				file = new JsonLinesReport(writer, configuration);
+				break;
+			default:
+				file = new TextReport(writer, configuration, true);
+				break;
+			}
+		}
+		// Console is only flushed at the end, since it stays open
+		Writer console = new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8);
+		return new Report(new TextReport(console, configuration, false), file);
+	}
+
+	// This opens output file of configuration and the console as one text writer, console is only flushed when it is closed
+	public static PrintWriter OpenText(Configuration configuration) throws IOException {
+		Writer file = Files.newBufferedWriter(Paths.get(configuration.OutputFile()), StandardCharsets.UTF_8);
+		Writer console = new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8);
+		return new PrintWriter(new TextWriter(console, file));
+	}
+
+	public void Summary(long masterSeed,
+						int replication,
+						long replications,
+						String stopReason,
+						double[] intervals) throws IOException {
+		_Console.Summary(masterSeed, replication, replications, stopReason, intervals);
+		_File.Summary(masterSeed, replication, replications, stopReason, intervals);
+	}
+	public void Row(String name,
+					int[] floors,
+					double[] values) throws IOException {
+		_Console.Row(name, floors, values);
+		_File.Row(name, floors, values);
+	}
+	public void close() throws IOException {
+		try {
+			_Console.close();
+		}
+		finally {
+			_File.close();
+		}
+	}
+
+	// This writes the same text to the console and to the file
+	private static class TextWriter extends Writer {
+		private Writer _Console;
+		private Writer _File;
+
+		public TextWriter(Writer console,
+							Writer file) {
+			_Console = console;
+			_File = file;
+		}
+
+		public void write(char[] buffer,
+							int offset,
+							int length) throws IOException {
+			_Console.write(buffer, offset, length);
+			_File.write(buffer, offset, length);
+		}
+		public void flush() throws IOException {
+			_Console.flush();
+			_File.flush();
+		}
+		public void close() throws IOException {
+			try {
+				_Console.flush();
+			}
+			finally {
+				_File.close();
+			}
+		}
+	}
+
+	private static String[] Columns() {
+		String[] columns = new String[TRAVEL_TIME_MAX + 1];
+		columns[PEOPLE] = "people";
+		columns[SHARE] = "share";
+		columns[WAIT_TIME_AVERAGE] = "waitTimeAverage";
+		columns[WAIT_TIME_STANDARD_DEVIATION] = "waitTimeStandardDeviation";
+		columns[WAIT_TIME_MAX] = "waitTimeMax";
+		columns[TRAVEL_TIME_AVERAGE] = "travelTimeAverage";
+		columns[TRAVEL_TIME_STANDARD_DEVIATION] = "travelTimeStandardDeviation";
+		columns[TRAVEL_TIME_MAX] = "travelTimeMax";
+		for (int i = 0; i < PERCENTILES.length; ++i) {
+			columns[WAIT_TIME_PERCENTILES + i] = "waitTime" + PERCENTILE_NAMES[i];
+			columns[TRAVEL_TIME_PERCENTILES + i] = "travelTime" + PERCENTILE_NAMES[i];
+		}
+		return columns;
+	}
+
+	// Whole percentiles are written without decimals (P95 instead of P95.0)
+	public static String PercentileName(double percentile) {
+		return percentile == Math.rint(percentile) ? Long.toString((long)percentile) : Double.toString(percentile);
+	}
+	// Values that were floats are written as floats, so they do not get digits they never had
+	public static String Number(double value) {
+		return Float.toString((float)value);
+	}
+}
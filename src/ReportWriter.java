@@ -0,0 +1,20 @@
+// Author: Sayeed Gulmahamad
+import java.io.IOException;
+
+// This writes results of a simulation in one format, row by row as they are made, so the whole report is never kept in memory
+// Summary comes first, then a row for every floor pair (or zone pair) in order and a row for all floors
+// Values of a row are in order of Report.COLUMNS
+public interface ReportWriter extends AutoCloseable {
+	// Summary has master seed, replication (invalid value if all of them were run), number of merged replications and why they stopped (null if all of them were run)
+	// Intervals are wait time average and its half width, and wait time percentile and its half width, or null if there are fewer than 2 replications
+	void Summary(long masterSeed,
+					int replication,
+					long replications,
+					String stopReason,
+					double[] intervals) throws IOException;
+	// Floors are first and last enter floor and first and last leave floor (starting from 1), or null for the row of all floors
+	void Row(String name,
+				int[] floors,
+				double[] values) throws IOException;
+	void close() throws IOException;
+}
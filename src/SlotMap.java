@@ -0,0 +1,92 @@
+// Author: Sayeed Gulmahamad
+import java.util.Arrays;
+
+// This maps long keys to slots, which are numbered 0, 1, 2... in order in which keys were added
+// It is an open addressing hash table with linear probing, kept in primitive arrays, so keys are never boxed
+// Table is at most half full and doubles when it gets fuller, so a lookup takes about one probe
+// Keys are never removed, and slot of a key never changes
+public class SlotMap {
+	private static final long EMPTY = Long.MIN_VALUE;
+	private static final int INITIAL_CAPACITY = 16;
+
+	// Hash table of keys and their slots
+	private long[] _Keys;
+	private int[] _Slots;
+	// Key of every slot
+	private long[] _SlotKeys;
+	private int _Size = 0;
+
+	public SlotMap() {
+		_Keys = new long[INITIAL_CAPACITY];
+		Arrays.fill(_Keys, EMPTY);
+		_Slots = new int[INITIAL_CAPACITY];
+		_SlotKeys = new long[INITIAL_CAPACITY / 2];
+	}
+
+	// This returns slot of key, or invalid value if key was not added
+	public int Get(long key) {
+		int mask = _Keys.length - 1;
+		for (int i = Hash(key) & mask; _Keys[i] != EMPTY; i = (i + 1) & mask) {
+			if (_Keys[i] == key) {
+				return _Slots[i];
+			}
+		}
+		return Constants.INVALID_VALUE;
+	}
+
+	// This returns slot of key, and adds key in the next slot if it was not added
+	public int Put(long key) {
+		int mask = _Keys.length - 1;
+		int i = Hash(key) & mask;
+		for (; _Keys[i] != EMPTY; i = (i + 1) & mask) {
+			if (_Keys[i] == key) {
+				return _Slots[i];
+			}
+		}
+		int slot = _Size++;
+		_Keys[i] = key;
+		_Slots[i] = slot;
+		if (slot == _SlotKeys.length) {
+			_SlotKeys = Arrays.copyOf(_SlotKeys, 2 * _SlotKeys.length);
+		}
+		_SlotKeys[slot] = key;
+		if (2 * _Size > _Keys.length) {
+			Grow();
+		}
+		return slot;
+	}
+
+	public int Size() {
+		return _Size;
+	}
+	// This returns key of slot
+	public long Key(int slot) {
+		return _SlotKeys[slot];
+	}
+
+	private void Grow() {
+		long[] keys = _Keys;
+		int[] slots = _Slots;
+		_Keys = new long[2 * keys.length];
+		Arrays.fill(_Keys, EMPTY);
+		_Slots = new int[2 * keys.length];
+		int mask = _Keys.length - 1;
+		for (int j = 0; j < keys.length; ++j) {
+			if (keys[j] == EMPTY) {
+				continue;
+			}
+			int i = Hash(keys[j]) & mask;
+			while (_Keys[i] != EMPTY) {
+				i = (i + 1) & mask;
+			}
+			_Keys[i] = keys[j];
+			_Slots[i] = slots[j];
+		}
+	}
+
+	// Keys are often small consecutive numbers, so they are mixed (Fibonacci hashing) to spread them
+	private static int Hash(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int)(hash ^ (hash >>> 32));
+	}
+}
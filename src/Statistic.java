@@ -1,114 +1,335 @@
-// Author: Sayeed Gulmahamad
-import java.util.ArrayList;
-
-// This calculates the statistics for the entire simulation
-// After the simulation finishes, data is processed and calculated
-// It includes subclasses used for storing data during the simulation
-public class Statistic {
-	// This is the data extracted from a single person
-	private static class PersonData {
-		private float _WaitTime;
-		private float _TravelTime;
-
-		public PersonData(Person person) {
-			_WaitTime = person.WaitTime();
-			_TravelTime = person.TravelTime();
-		}
-
-		public float WaitTime() {
-			return _WaitTime;
-		}
-		public float TravelTime() {
-			return _TravelTime;
-		}
-	}
-
-	// This is the data extracted from every person traveling from one floor to another
-	private static class StatisticData {
-		private ArrayList<PersonData> _Data;
-
-		private float _WaitTimeAverage;
-		private float _TravelTimeAverage;
-		private float _WaitTimeStandardDeviation;
-		private float _TravelTimeStandardDeviation;
-
-		public StatisticData() {
-			_Data = new ArrayList<PersonData>();
-		}
-
-		public void Add(PersonData personData) {
-			_Data.add(personData);
-		}
-
-		public void Calculate() {
-			float[] waitTimes = new float[_Data.size()];
-			float[] travelTimes = new float[_Data.size()];
-			for (int i = 0; i < _Data.size(); ++i) {
-				waitTimes[i] = _Data.get(i).WaitTime();
-				travelTimes[i] = _Data.get(i).TravelTime();
-			}
-			_WaitTimeAverage = Methods.Average(waitTimes);
-			_TravelTimeAverage = Methods.Average(travelTimes);
-			_WaitTimeStandardDeviation = Methods.StandardDeviation(waitTimes, _WaitTimeAverage);
-			_TravelTimeStandardDeviation = Methods.StandardDeviation(travelTimes, _TravelTimeAverage);
-		}
-
-		public int NumberOfPeople() {
-			return _Data.size();
-		}
-		public float WaitTimeAverage() {
-			return Methods.FormatTime(_WaitTimeAverage);
-		}
-		public float TravelTimeAverage() {
-			return Methods.FormatTime(_TravelTimeAverage);
-		}
-		public float WaitTimeStandardDeviation() {
-			return Methods.FormatTime(_WaitTimeStandardDeviation);
-		}
-		public float TravelTimeStandardDeviation() {
-			return Methods.FormatTime(_TravelTimeStandardDeviation);
-		}
-	}
-
-	private static StatisticData[][] _Data;
-
-	public static void Initialize() {
-		_Data = new StatisticData[Constants.NUMBER_OF_FLOORS][Constants.NUMBER_OF_FLOORS];
-		for (int i = 0; i < Constants.NUMBER_OF_FLOORS; ++i) {
-			for (int j = 0; j < Constants.NUMBER_OF_FLOORS; ++j) {
-				_Data[i][j] = new StatisticData();
-			}
-		}
-	}
-
-	public static void Add(Person person) {
-		PersonData personData = new PersonData(person);
-		_Data[person.EnterFloor()][person.LeaveFloor()].Add(personData);
-	}
-
-	public static void Calculate() {
-		for (int i = 0; i < Constants.NUMBER_OF_FLOORS; ++i) {
-			for (int j = 0; j < Constants.NUMBER_OF_FLOORS; ++j) {
-				_Data[i][j].Calculate();
-			}
-		}
-	}
-
-	public static String GetOutput() {
-		String output = "";
-		for (int i = 0; i < Constants.NUMBER_OF_FLOORS; ++i) {
-			for (int j = 0; j < Constants.NUMBER_OF_FLOORS; ++j) {
-				StatisticData data = _Data[i][j];
-				if (data.NumberOfPeople() == 0) {
-					continue;
-				}
-				output = output.concat(String.format("From floor %d to floor %d%n\t People: Average = %d Standard Deviation = %.2f%n\t Wait time: Average = %.2f Standard Deviation = %.2f%n\t Travel time: Average = %.2f Standard Deviation = %.2f%n",
-						i + 1, j + 1,
-						data.NumberOfPeople(), ((float)data.NumberOfPeople() / (Constants.NUMBER_OF_SIMULATIONS * Constants.NUMBER_OF_PEOPLE)) * 100,
-						data.WaitTimeAverage(), data.WaitTimeStandardDeviation(),
-						data.TravelTimeAverage(), data.TravelTimeStandardDeviation()));
-			}
-		}
-		return output;
-	}
-}
+// Author: Sayeed Gulmahamad
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// This calculates the statistics for the entire simulation
+// Data is accumulated while the simulation runs, so nothing has to be calculated afterwards
+// Memory used depends only on the number of floor pairs that had people, not on the number of people
+// Floor pairs are kept in a sparse map and their data is created with their first person, so tall buildings only pay for pairs used
+// Histograms of a pair also grow with the buckets they use, so a pair with few people stays small (see Histogram)
+// Floors can be grouped in zones (banks), then data is kept by pair of zones and results stay short for any number of floors
+// Besides average and standard deviation, wait and travel times are counted in histograms for percentiles
+// Every replication owns its statistic and all of them are merged once the replications finish
+// Statistic can be written in binary form (snapshot) and read back, so statistics of other processes or saved ones can be merged
+// If there is a time series, it is kept with the statistic, so it is merged and written together with it
+public class Statistic {
+	// This is the data extracted from every person traveling from one floor to another
+	private static class StatisticData {
+		private Accumulator _WaitTime;
+		private Accumulator _TravelTime;
+		private Histogram _WaitTimeHistogram;
+		private Histogram _TravelTimeHistogram;
+
+		public StatisticData() {
+			_WaitTime = new Accumulator();
+			_TravelTime = new Accumulator();
+			_WaitTimeHistogram = new Histogram();
+			_TravelTimeHistogram = new Histogram();
+		}
+
+		public void Add(long waitTime,
+						long travelTime) {
+			_WaitTime.Add(waitTime);
+			_TravelTime.Add(travelTime);
+			_WaitTimeHistogram.Add(waitTime);
+			_TravelTimeHistogram.Add(travelTime);
+		}
+
+		public void Merge(StatisticData other) {
+			_WaitTime.Merge(other._WaitTime);
+			_TravelTime.Merge(other._TravelTime);
+			_WaitTimeHistogram.Merge(other._WaitTimeHistogram);
+			_TravelTimeHistogram.Merge(other._TravelTimeHistogram);
+		}
+
+		public void Write(DataOutput output) throws IOException {
+			_WaitTime.Write(output);
+			_TravelTime.Write(output);
+			_WaitTimeHistogram.Write(output);
+			_TravelTimeHistogram.Write(output);
+		}
+		public void Read(DataInput input) throws IOException {
+			_WaitTime.Read(input);
+			_TravelTime.Read(input);
+			_WaitTimeHistogram.Read(input);
+			_TravelTimeHistogram.Read(input);
+		}
+
+		public long NumberOfPeople() {
+			return _WaitTime.Count();
+		}
+		public float WaitTimeAverage() {
+			return Methods.FormatTime(_WaitTime.Average());
+		}
+		public float TravelTimeAverage() {
+			return Methods.FormatTime(_TravelTime.Average());
+		}
+		public float WaitTimeStandardDeviation() {
+			return Methods.FormatTime(_WaitTime.StandardDeviation());
+		}
+		public float TravelTimeStandardDeviation() {
+			return Methods.FormatTime(_TravelTime.StandardDeviation());
+		}
+		public float WaitTimePercentile(double percentile) {
+			return Methods.FormatTime(_WaitTimeHistogram.Percentile(percentile));
+		}
+		public float TravelTimePercentile(double percentile) {
+			return Methods.FormatTime(_TravelTimeHistogram.Percentile(percentile));
+		}
+
+		// This fills values of a report row, share is percentage of given number of people
+		// Values are floats as they were always shown, and all percentiles of a histogram are read in one pass
+		public void Values(long numberOfPeople,
+							double[] values,
+							long[] percentiles) {
+			values[Report.PEOPLE] = NumberOfPeople();
+			values[Report.SHARE] = ((float)NumberOfPeople() / numberOfPeople) * 100;
+			values[Report.WAIT_TIME_AVERAGE] = WaitTimeAverage();
+			values[Report.WAIT_TIME_STANDARD_DEVIATION] = WaitTimeStandardDeviation();
+			_WaitTimeHistogram.Percentiles(Report.PERCENTILES, percentiles);
+			for (int i = 0; i < percentiles.length; ++i) {
+				values[Report.WAIT_TIME_PERCENTILES + i] = Methods.FormatTime(percentiles[i]);
+			}
+			values[Report.WAIT_TIME_MAX] = Methods.FormatTime(_WaitTimeHistogram.Max());
+			values[Report.TRAVEL_TIME_AVERAGE] = TravelTimeAverage();
+			values[Report.TRAVEL_TIME_STANDARD_DEVIATION] = TravelTimeStandardDeviation();
+			_TravelTimeHistogram.Percentiles(Report.PERCENTILES, percentiles);
+			for (int i = 0; i < percentiles.length; ++i) {
+				values[Report.TRAVEL_TIME_PERCENTILES + i] = Methods.FormatTime(percentiles[i]);
+			}
+			values[Report.TRAVEL_TIME_MAX] = Methods.FormatTime(_TravelTimeHistogram.Max());
+		}
+	}
+
+	private int _NumberOfFloors;
+	// First floor of every zone, or null if floors are not grouped in zones
+	private int[] _Zones;
+	// Group of every floor (its zone, or the floor itself without zones) and number of groups
+	private int[] _FloorGroups;
+	private int _NumberOfGroups;
+	// Data of floor pairs that had people, pair key is enter group * number of groups + leave group
+	private SlotMap _Slots;
+	private ArrayList<StatisticData> _Data;
+	// This is the data for every person in the building, no matter the floors
+	private StatisticData _Building;
+	// Time series or null if there is none
+	private TimeSeries _TimeSeries;
+
+	public Statistic(int numberOfFloors) {
+		this(numberOfFloors, null, null);
+	}
+	public Statistic(int numberOfFloors,
+						int[] zones) {
+		this(numberOfFloors, zones, null);
+	}
+	public Statistic(int numberOfFloors,
+						int[] zones,
+						TimeSeries timeSeries) {
+		_NumberOfFloors = numberOfFloors;
+		_Zones = zones;
+		_FloorGroups = new int[numberOfFloors];
+		_NumberOfGroups = zones == null ? numberOfFloors : zones.length;
+		for (int i = 0; i < numberOfFloors; ++i) {
+			_FloorGroups[i] = zones == null ? i : Zone(zones, i);
+		}
+		_Slots = new SlotMap();
+		_Data = new ArrayList<StatisticData>();
+		_Building = new StatisticData();
+		_TimeSeries = timeSeries;
+	}
+
+	// This returns zone of a floor, which is the last zone starting at or below it
+	private static int Zone(int[] zones,
+							int floor) {
+		int zone = 0;
+		while (zone + 1 < zones.length && zones[zone + 1] <= floor) {
+			++zone;
+		}
+		return zone;
+	}
+
+	// This returns data of a pair, it is created when the pair gets its first person
+	private StatisticData Data(long pair) {
+		int slot = _Slots.Put(pair);
+		if (slot == _Data.size()) {
+			_Data.add(new StatisticData());
+		}
+		return _Data.get(slot);
+	}
+
+	// This adds a person that has left the elevator
+	public void Add(int enterFloor,
+					int leaveFloor,
+					long createTime,
+					long waitTime,
+					long travelTime) {
+		Data((long)_FloorGroups[enterFloor] * _NumberOfGroups + _FloorGroups[leaveFloor]).Add(waitTime, travelTime);
+		_Building.Add(waitTime, travelTime);
+		if (_TimeSeries != null) {
+			_TimeSeries.Completion(createTime, waitTime, createTime + waitTime + travelTime);
+		}
+	}
+
+	// These return data for every person in the building
+	public long NumberOfPeople() {
+		return _Building.NumberOfPeople();
+	}
+	public float WaitTimeAverage() {
+		return _Building.WaitTimeAverage();
+	}
+	public float WaitTimePercentile(double percentile) {
+		return _Building.WaitTimePercentile(percentile);
+	}
+	public float TravelTimeAverage() {
+		return _Building.TravelTimeAverage();
+	}
+	public float TravelTimePercentile(double percentile) {
+		return _Building.TravelTimePercentile(percentile);
+	}
+
+	// This returns keys of all pairs that had people, in order of enter and then leave floor (or zone)
+	public long[] Pairs() {
+		long[] pairs = new long[_Slots.Size()];
+		for (int i = 0; i < pairs.length; ++i) {
+			pairs[i] = _Slots.Key(i);
+		}
+		Arrays.sort(pairs);
+		return pairs;
+	}
+	// This returns name of a pair as shown in results
+	public String PairName(long pair) {
+		int enterGroup = (int)(pair / _NumberOfGroups);
+		int leaveGroup = (int)(pair % _NumberOfGroups);
+		if (_Zones == null) {
+			return String.format("From floor %d to floor %d", enterGroup + 1, leaveGroup + 1);
+		}
+		return String.format("From floors %s to floors %s", ZoneName(enterGroup), ZoneName(leaveGroup));
+	}
+	private String ZoneName(int zone) {
+		int last = zone + 1 < _Zones.length ? _Zones[zone + 1] : _NumberOfFloors;
+		return String.format("%d-%d", _Zones[zone] + 1, last);
+	}
+
+	// These return data for people traveling between a pair of floors (or zones)
+	public long NumberOfPeople(long pair) {
+		int slot = _Slots.Get(pair);
+		return slot == Constants.INVALID_VALUE ? 0 : _Data.get(slot).NumberOfPeople();
+	}
+	public float WaitTimeAverage(long pair) {
+		int slot = _Slots.Get(pair);
+		return slot == Constants.INVALID_VALUE ? 0 : _Data.get(slot).WaitTimeAverage();
+	}
+	public float TravelTimeAverage(long pair) {
+		int slot = _Slots.Get(pair);
+		return slot == Constants.INVALID_VALUE ? 0 : _Data.get(slot).TravelTimeAverage();
+	}
+	public int NumberOfFloors() {
+		return _NumberOfFloors;
+	}
+	// Time series or null if there is none
+	public TimeSeries TimeSeries() {
+		return _TimeSeries;
+	}
+
+	// This adds all data from other statistic (from another replication) into this one
+	// Both statistics must have the same floors and zones, and both or none must have a time series
+	public void Merge(Statistic other) {
+		if (other._NumberOfFloors != _NumberOfFloors || !Arrays.equals(other._Zones, _Zones)) {
+			throw new IllegalArgumentException("Statistics with different floors can not be merged");
+		}
+		if ((other._TimeSeries == null) != (_TimeSeries == null)) {
+			throw new IllegalArgumentException("Statistics with and without time series can not be merged");
+		}
+		for (int i = 0; i < other._Slots.Size(); ++i) {
+			Data(other._Slots.Key(i)).Merge(other._Data.get(i));
+		}
+		_Building.Merge(other._Building);
+		if (_TimeSeries != null) {
+			_TimeSeries.Merge(other._TimeSeries);
+		}
+	}
+
+	// Snapshot has number of floors, zones (their number and first floors), then data of every pair with people and data of the building
+	// It ends with a flag and the time series if there is one
+	public void Write(DataOutput output) throws IOException {
+		output.writeInt(_NumberOfFloors);
+		output.writeInt(_Zones == null ? 0 : _Zones.length);
+		for (int i = 0; _Zones != null && i < _Zones.length; ++i) {
+			output.writeInt(_Zones[i]);
+		}
+		output.writeInt(_Slots.Size());
+		for (int i = 0; i < _Slots.Size(); ++i) {
+			output.writeLong(_Slots.Key(i));
+			_Data.get(i).Write(output);
+		}
+		_Building.Write(output);
+		output.writeBoolean(_TimeSeries != null);
+		if (_TimeSeries != null) {
+			_TimeSeries.Write(output);
+		}
+	}
+	public static Statistic Read(DataInput input) throws IOException {
+		int numberOfFloors = input.readInt();
+		int numberOfZones = input.readInt();
+		if (numberOfFloors < 0 || numberOfZones < 0 || numberOfZones > numberOfFloors) {
+			throw new IOException("Statistic snapshot is invalid");
+		}
+		int[] zones = null;
+		if (numberOfZones > 0) {
+			zones = new int[numberOfZones];
+			for (int i = 0; i < numberOfZones; ++i) {
+				zones[i] = input.readInt();
+			}
+		}
+		Statistic statistic = new Statistic(numberOfFloors, zones);
+		int pairs = input.readInt();
+		for (int i = 0; i < pairs; ++i) {
+			long pair = input.readLong();
+			if (pair < 0 || pair >= (long)statistic._NumberOfGroups * statistic._NumberOfGroups) {
+				throw new IOException("Statistic snapshot is invalid");
+			}
+			statistic.Data(pair).Read(input);
+		}
+		statistic._Building.Read(input);
+		if (input.readBoolean()) {
+			statistic._TimeSeries = TimeSeries.Read(input);
+		}
+		return statistic;
+	}
+
+	// This writes a row for every pair that had people (in order) and a row for all floors
+	public void Report(ReportWriter writer) throws IOException {
+		double[] values = new double[Report.COLUMNS.length];
+		long[] percentiles = new long[Report.PERCENTILES.length];
+		int[] floors = new int[4];
+		long numberOfPeople = _Building.NumberOfPeople();
+		long[] pairs = Pairs();
+		for (int i = 0; i < pairs.length; ++i) {
+			int enterGroup = (int)(pairs[i] / _NumberOfGroups);
+			int leaveGroup = (int)(pairs[i] % _NumberOfGroups);
+			floors[0] = FirstFloor(enterGroup);
+			floors[1] = LastFloor(enterGroup);
+			floors[2] = FirstFloor(leaveGroup);
+			floors[3] = LastFloor(leaveGroup);
+			_Data.get(_Slots.Get(pairs[i])).Values(numberOfPeople, values, percentiles);
+			writer.Row(PairName(pairs[i]), floors, values);
+		}
+		if (numberOfPeople != 0) {
+			_Building.Values(numberOfPeople, values, percentiles);
+			writer.Row("All floors", null, values);
+		}
+	}
+	// First and last floor of a group, starting from 1
+	private int FirstFloor(int group) {
+		return (_Zones == null ? group : _Zones[group]) + 1;
+	}
+	private int LastFloor(int group) {
+		if (_Zones == null) {
+			return group + 1;
+		}
+		return group + 1 < _Zones.length ? _Zones[group + 1] : _NumberOfFloors;
+	}
+}
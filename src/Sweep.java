@@ -0,0 +1,86 @@
+// Author: Sayeed Gulmahamad
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Map;
+
+// This runs the simulation for every combination of swept settings (parameter sweep)
+// All runs are done in the same virtual machine one after another, so they share already compiled code
+// Results of all runs are collected in a single table with one row per combination
+// Only the values of every row are kept while running, and the table is written once all runs finish
+public class Sweep {
+	private Configuration _Configuration;
+	private ArrayList<String> _Keys;
+	private ArrayList<String[]> _Values;
+	// Indices of swept values and results of every run
+	private ArrayList<int[]> _RunIndices = new ArrayList<int[]>();
+	private ArrayList<double[]> _RunResults = new ArrayList<double[]>();
+
+	public Sweep(Configuration configuration) {
+		_Configuration = configuration;
+		_Keys = new ArrayList<String>();
+		_Values = new ArrayList<String[]>();
+		for (Map.Entry<String, String> sweep : configuration.Sweep().entrySet()) {
+			_Keys.add(sweep.getKey());
+			_Values.add(Configuration.SweepValues(sweep.getValue()));
+		}
+	}
+
+	public int NumberOfRuns() {
+		int count = 1;
+		for (int i = 0; i < _Values.size(); ++i) {
+			count *= _Values.get(i).length;
+		}
+		return count;
+	}
+
+	// Runs all combinations and keeps their results
+	// Combinations are made like an odometer, the last swept setting changes the fastest
+	public void Run() {
+		int[] indices = new int[_Keys.size()];
+		int runs = NumberOfRuns();
+		for (int run = 0; run < runs; ++run) {
+			Configuration configuration = _Configuration.Copy();
+			for (int i = 0; i < _Keys.size(); ++i) {
+				configuration.Set(_Keys.get(i), _Values.get(i)[indices[i]]);
+			}
+			long startMilliseconds = System.currentTimeMillis();
+			Statistic statistic = new MonteCarlo(configuration).Run();
+			long simulationMilliseconds = System.currentTimeMillis() - startMilliseconds;
+			_RunIndices.add(indices.clone());
+			_RunResults.add(new double[] {
+					statistic.NumberOfPeople(),
+					statistic.WaitTimeAverage(), statistic.WaitTimePercentile(90), statistic.WaitTimePercentile(99),
+					statistic.TravelTimeAverage(), statistic.TravelTimePercentile(99),
+					simulationMilliseconds });
+			System.out.format("Sweep run %d of %d finished%n", run + 1, runs);
+			// Move to next combination
+			for (int i = _Keys.size() - 1; i >= 0; --i) {
+				if (++indices[i] < _Values.get(i).length) {
+					break;
+				}
+				indices[i] = 0;
+			}
+		}
+	}
+
+	// This writes table with a row for every run
+	public void Write(PrintWriter writer) {
+		for (int i = 0; i < _Keys.size(); ++i) {
+			writer.format("%-12s ", _Keys.get(i));
+		}
+		writer.format("%12s %12s %12s %12s %12s %12s %12s%n",
+				"People", "WaitAverage", "WaitP90", "WaitP99", "TravelAverage", "TravelP99", "Milliseconds");
+		for (int run = 0; run < _RunResults.size(); ++run) {
+			int[] indices = _RunIndices.get(run);
+			double[] results = _RunResults.get(run);
+			for (int i = 0; i < _Keys.size(); ++i) {
+				writer.format("%-12s ", _Values.get(i)[indices[i]]);
+			}
+			writer.format("%12d %12.2f %12.2f %12.2f %12.2f %12.2f %12d%n",
+					(long)results[0],
+					(float)results[1], (float)results[2], (float)results[3],
+					(float)results[4], (float)results[5],
+					(long)results[6]);
+		}
+	}
+}
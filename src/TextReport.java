@@ -0,0 +1,76 @@
+// Author: Sayeed Gulmahamad
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+// This writes results as text, the same way they are shown on the console
+public class TextReport implements ReportWriter {
+	private PrintWriter _Writer;
+	// Writer is closed with the report only if report owns it (console is only flushed)
+	private boolean _IsOwner;
+	private double _PrecisionPercentile;
+	private double _Confidence;
+
+	public TextReport(Writer writer,
+						Configuration configuration,
+						boolean isOwner) {
+		_Writer = new PrintWriter(writer);
+		_IsOwner = isOwner;
+		_PrecisionPercentile = configuration.PrecisionPercentile();
+		_Confidence = configuration.ConfidenceLevel();
+	}
+
+	public void Summary(long masterSeed,
+						int replication,
+						long replications,
+						String stopReason,
+						double[] intervals) {
+		if (replication != Constants.INVALID_VALUE) {
+			_Writer.format("Master seed = %d Replication = %d%n", masterSeed, replication);
+		} else {
+			_Writer.format("Master seed = %d%n", masterSeed);
+		}
+		_Writer.format("Replications = %d", replications);
+		if (stopReason != null) {
+			_Writer.format(" Stopped: %s", stopReason);
+		}
+		_Writer.format("%n");
+		if (intervals != null) {
+			_Writer.format("\t Wait time: Average = %.3f +- %.3f P%s = %.3f +- %.3f (confidence %.1f%%)%n",
+					intervals[0], intervals[1], Report.PercentileName(_PrecisionPercentile), intervals[2], intervals[3], _Confidence * 100);
+		}
+	}
+
+	public void Row(String name,
+					int[] floors,
+					double[] values) {
+		_Writer.format("%s%n", name);
+		_Writer.format("\t People: Average = %d Standard Deviation = %.2f%n", (long)values[Report.PEOPLE], values[Report.SHARE]);
+		_Writer.format("\t Wait time: Average = %.2f Standard Deviation = %.2f%n", values[Report.WAIT_TIME_AVERAGE], values[Report.WAIT_TIME_STANDARD_DEVIATION]);
+		_Writer.format("\t Wait time: ");
+		Percentiles(values, Report.WAIT_TIME_PERCENTILES, Report.WAIT_TIME_MAX);
+		_Writer.format("\t Travel time: Average = %.2f Standard Deviation = %.2f%n", values[Report.TRAVEL_TIME_AVERAGE], values[Report.TRAVEL_TIME_STANDARD_DEVIATION]);
+		_Writer.format("\t Travel time: ");
+		Percentiles(values, Report.TRAVEL_TIME_PERCENTILES, Report.TRAVEL_TIME_MAX);
+	}
+	private void Percentiles(double[] values,
+								int first,
+								int max) {
+		for (int i = 0; i < Report.PERCENTILES.length; ++i) {
+			_Writer.format("%s = %.2f ", Report.PERCENTILE_NAMES[i], values[first + i]);
+		}
+		_Writer.format("Max = %.2f%n", values[max]);
+	}
+
+	// Print writer does not throw, so errors are checked once at the end
+	public void close() throws IOException {
+		if (_IsOwner) {
+			_Writer.close();
+		} else {
+			_Writer.flush();
+		}
+		if (_Writer.checkError()) {
+			throw new IOException("Results could not be written");
+		}
+	}
+}
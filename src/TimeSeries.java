@@ -0,0 +1,273 @@
+// Author: Sayeed Gulmahamad
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// This keeps the simulation in windows of fixed simulated time (5 minutes by default), so busy and quiet periods can be told apart
+// Every window has arrivals, completions, wait time of people, people pending and time every elevator spent in every state
+// Windows are primitive arrays with one element per window (states have one per window, elevator and state)
+// Arrays are made for the expected length of a replication and doubled if it is longer, so nothing is allocated for a sample
+// Wait time is counted in the window in which the person arrived, so a window shows how long its own arrivals waited
+// People pending are sampled after every event and counted for the time until the next one, so the average is over time
+// Time series of replications are merged by summing them, and are written as averages per replication (maximums are of all replications)
+// Written file is CSV with a line for every window, elevator states are shares of the window time for all elevators and for every one
+public class TimeSeries {
+	private long _WindowTicks;
+	private int _NumberOfElevators;
+	private int _NumberOfStates;
+	// Number of windows that have anything, and number of merged replications
+	private int _NumberOfWindows = 0;
+	private long _Replications = 0;
+
+	private long[] _Arrivals;
+	private long[] _Completions;
+	private long[] _WaitTicks;
+	private long[] _WaitMax;
+	// Number of people pending multiplied by the ticks they were pending
+	private long[] _PendingTicks;
+	private int[] _PendingMax;
+	// Ticks of every elevator in every state, index is (window * number of elevators + elevator) * number of states + state
+	private long[] _StateTicks;
+
+	// People pending since the last sample and its time
+	private int _Pending = 0;
+	private long _PendingTime = 0;
+
+	public TimeSeries(long windowTicks,
+						int numberOfElevators,
+						int capacity) {
+		_WindowTicks = windowTicks;
+		_NumberOfElevators = numberOfElevators;
+		_NumberOfStates = ElevatorState.values().length;
+		capacity = Math.max(1, capacity);
+		_Arrivals = new long[capacity];
+		_Completions = new long[capacity];
+		_WaitTicks = new long[capacity];
+		_WaitMax = new long[capacity];
+		_PendingTicks = new long[capacity];
+		_PendingMax = new int[capacity];
+		_StateTicks = new long[capacity * _NumberOfElevators * _NumberOfStates];
+	}
+
+	// This returns time series for configuration, or null if there is none
+	// Capacity is the expected length of a replication (people at the arrival rate) and one window more
+	public static TimeSeries Create(Configuration configuration) {
+		if (configuration.TimeSeriesFile() == null) {
+			return null;
+		}
+		double ticks = configuration.NumberOfPeople() / configuration.ArrivalRate() * Constants.TIME_UNIT_CHUNKS;
+		int capacity = (int)Math.min(Integer.MAX_VALUE / (configuration.NumberOfElevators() * ElevatorState.values().length), ticks / configuration.Window() + 2);
+		return new TimeSeries(configuration.Window(), configuration.NumberOfElevators(), capacity);
+	}
+
+	// This returns window of given time, and makes room for it if it is the first time in it
+	private int Window(long time) {
+		int window = (int)(time / _WindowTicks);
+		if (window >= _NumberOfWindows) {
+			if (window >= _Arrivals.length) {
+				Grow(Math.max(2 * _Arrivals.length, window + 1));
+			}
+			_NumberOfWindows = window + 1;
+		}
+		return window;
+	}
+	private void Grow(int capacity) {
+		_Arrivals = Arrays.copyOf(_Arrivals, capacity);
+		_Completions = Arrays.copyOf(_Completions, capacity);
+		_WaitTicks = Arrays.copyOf(_WaitTicks, capacity);
+		_WaitMax = Arrays.copyOf(_WaitMax, capacity);
+		_PendingTicks = Arrays.copyOf(_PendingTicks, capacity);
+		_PendingMax = Arrays.copyOf(_PendingMax, capacity);
+		_StateTicks = Arrays.copyOf(_StateTicks, capacity * _NumberOfElevators * _NumberOfStates);
+	}
+
+	// This adds a person created at given time
+	// Window is found before any array is read, since finding it can grow the arrays
+	public void Arrival(long time) {
+		int window = Window(time);
+		++_Arrivals[window];
+	}
+	// This adds a person that has left the elevator, wait time goes to the window of arrival
+	public void Completion(long createTime,
+							long waitTime,
+							long leaveTime) {
+		int window = Window(leaveTime);
+		++_Completions[window];
+		window = Window(createTime);
+		_WaitTicks[window] += waitTime;
+		if (waitTime > _WaitMax[window]) {
+			_WaitMax[window] = waitTime;
+		}
+	}
+	// This samples people pending at given time, the last sample is counted until then
+	public void Pending(long time,
+						int pending) {
+		for (long start = _PendingTime; start < time;) {
+			int window = Window(start);
+			long end = Math.min(time, (window + 1) * _WindowTicks);
+			_PendingTicks[window] += _Pending * (end - start);
+			start = end;
+		}
+		int window = Window(time);
+		if (pending > _PendingMax[window]) {
+			_PendingMax[window] = pending;
+		}
+		_Pending = pending;
+		_PendingTime = time;
+	}
+	// This adds time elevator spent in a state, from given time until given time
+	public void State(int elevator,
+						ElevatorState state,
+						long from,
+						long to) {
+		for (long start = from; start < to;) {
+			int window = Window(start);
+			long end = Math.min(to, (window + 1) * _WindowTicks);
+			_StateTicks[(window * _NumberOfElevators + elevator) * _NumberOfStates + state.ordinal()] += end - start;
+			start = end;
+		}
+	}
+	// This ends the replication at given time, elevators end their states themselves
+	public void Finish(long time) {
+		Pending(time, _Pending);
+		_Replications = 1;
+	}
+
+	// This adds all windows of other time series (from another replication) into this one
+	public void Merge(TimeSeries other) {
+		if (other._WindowTicks != _WindowTicks || other._NumberOfElevators != _NumberOfElevators) {
+			throw new IllegalArgumentException("Time series with different windows or elevators can not be merged");
+		}
+		if (other._NumberOfWindows > _Arrivals.length) {
+			Grow(other._NumberOfWindows);
+		}
+		_NumberOfWindows = Math.max(_NumberOfWindows, other._NumberOfWindows);
+		for (int i = 0; i < other._NumberOfWindows; ++i) {
+			_Arrivals[i] += other._Arrivals[i];
+			_Completions[i] += other._Completions[i];
+			_WaitTicks[i] += other._WaitTicks[i];
+			_WaitMax[i] = Math.max(_WaitMax[i], other._WaitMax[i]);
+			_PendingTicks[i] += other._PendingTicks[i];
+			_PendingMax[i] = Math.max(_PendingMax[i], other._PendingMax[i]);
+		}
+		for (int i = 0; i < other._NumberOfWindows * _NumberOfElevators * _NumberOfStates; ++i) {
+			_StateTicks[i] += other._StateTicks[i];
+		}
+		_Replications += other._Replications;
+	}
+
+	// Snapshot has window ticks, number of elevators, states, replications and windows, then every window
+	public void Write(DataOutput output) throws IOException {
+		output.writeLong(_WindowTicks);
+		output.writeInt(_NumberOfElevators);
+		output.writeInt(_NumberOfStates);
+		output.writeLong(_Replications);
+		output.writeInt(_NumberOfWindows);
+		for (int i = 0; i < _NumberOfWindows; ++i) {
+			output.writeLong(_Arrivals[i]);
+			output.writeLong(_Completions[i]);
+			output.writeLong(_WaitTicks[i]);
+			output.writeLong(_WaitMax[i]);
+			output.writeLong(_PendingTicks[i]);
+			output.writeInt(_PendingMax[i]);
+			for (int j = i * _NumberOfElevators * _NumberOfStates; j < (i + 1) * _NumberOfElevators * _NumberOfStates; ++j) {
+				output.writeLong(_StateTicks[j]);
+			}
+		}
+	}
+	public static TimeSeries Read(DataInput input) throws IOException {
+		long windowTicks = input.readLong();
+		int numberOfElevators = input.readInt();
+		int numberOfStates = input.readInt();
+		long replications = input.readLong();
+		int numberOfWindows = input.readInt();
+		if (windowTicks <= 0 || numberOfElevators <= 0 || numberOfStates != ElevatorState.values().length || replications < 0 || numberOfWindows < 0) {
+			throw new IOException("Time series snapshot is invalid");
+		}
+		TimeSeries timeSeries = new TimeSeries(windowTicks, numberOfElevators, numberOfWindows);
+		timeSeries._Replications = replications;
+		timeSeries._NumberOfWindows = numberOfWindows;
+		for (int i = 0; i < numberOfWindows; ++i) {
+			timeSeries._Arrivals[i] = input.readLong();
+			timeSeries._Completions[i] = input.readLong();
+			timeSeries._WaitTicks[i] = input.readLong();
+			timeSeries._WaitMax[i] = input.readLong();
+			timeSeries._PendingTicks[i] = input.readLong();
+			timeSeries._PendingMax[i] = input.readInt();
+			for (int j = i * numberOfElevators * numberOfStates; j < (i + 1) * numberOfElevators * numberOfStates; ++j) {
+				timeSeries._StateTicks[j] = input.readLong();
+			}
+		}
+		return timeSeries;
+	}
+
+	// This writes a CSV line for every window, times are in seconds
+	// Counts are averages per replication, wait time average is of people that arrived in the window
+	// Time of a window is the time replications were in it (the last window of a replication is not whole), elevator states are shares of it
+	public void Export(String fileName) throws IOException {
+		ElevatorState[] states = ElevatorState.values();
+		try (Writer writer = Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8)) {
+			writer.write("windowStart,windowEnd,arrivals,completions,waitTimeAverage,waitTimeMax,peoplePendingAverage,peoplePendingMax");
+			for (int i = 0; i < states.length; ++i) {
+				writer.write(",all" + states[i]);
+			}
+			for (int j = 0; j < _NumberOfElevators; ++j) {
+				for (int i = 0; i < states.length; ++i) {
+					writer.write(",elevator" + j + states[i]);
+				}
+			}
+			writer.write("\n");
+			double replications = Math.max(1, _Replications);
+			for (int window = 0; window < _NumberOfWindows; ++window) {
+				// Every elevator is in some state all the time, so the first one gives the time of the window
+				long windowTicks = 0;
+				for (int i = 0; i < _NumberOfStates; ++i) {
+					windowTicks += _StateTicks[window * _NumberOfElevators * _NumberOfStates + i];
+				}
+				writer.write(Report.Number(Methods.FormatTime(window * _WindowTicks)));
+				writer.write(",");
+				writer.write(Report.Number(Methods.FormatTime((window + 1) * _WindowTicks)));
+				writer.write(",");
+				writer.write(Report.Number(_Arrivals[window] / replications));
+				writer.write(",");
+				writer.write(Report.Number(_Completions[window] / replications));
+				writer.write(",");
+				if (_Arrivals[window] != 0) {
+					writer.write(Report.Number(Methods.FormatTime((double)_WaitTicks[window] / _Arrivals[window])));
+				}
+				writer.write(",");
+				writer.write(Report.Number(Methods.FormatTime(_WaitMax[window])));
+				writer.write(",");
+				if (windowTicks != 0) {
+					writer.write(Report.Number((double)_PendingTicks[window] / windowTicks));
+				}
+				writer.write(",");
+				writer.write(Integer.toString(_PendingMax[window]));
+				for (int i = 0; i < _NumberOfStates; ++i) {
+					long ticks = 0;
+					for (int j = 0; j < _NumberOfElevators; ++j) {
+						ticks += _StateTicks[(window * _NumberOfElevators + j) * _NumberOfStates + i];
+					}
+					writer.write(",");
+					if (windowTicks != 0) {
+						writer.write(Report.Number((double)ticks / (windowTicks * _NumberOfElevators)));
+					}
+				}
+				for (int j = 0; j < _NumberOfElevators; ++j) {
+					for (int i = 0; i < _NumberOfStates; ++i) {
+						writer.write(",");
+						if (windowTicks != 0) {
+							writer.write(Report.Number((double)_StateTicks[(window * _NumberOfElevators + j) * _NumberOfStates + i] / windowTicks));
+						}
+					}
+				}
+				writer.write("\n");
+			}
+		}
+	}
+}
@@ -0,0 +1,108 @@
+// Author: Sayeed Gulmahamad
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// This replays arrivals recorded in a binary trace file
+// File is memory mapped and records are read straight from the mapping, so nothing is copied or created up front
+// Operating system loads pages as they are read and can drop them again, so traces can be larger than memory
+// Mapping is limited to 2GB, so larger files are mapped in several windows of whole records
+
+// Trace file format (big endian):
+//	Header: magic "ELVT" (4 bytes), version (int), number of floors (int), number of records (long)
+//	Records: arrival time in ticks (long), enter floor (short), leave floor (short)
+// Floors start from zero and records are ordered by time
+public class TraceArrivals implements ArrivalSource {
+	public static final int MAGIC = 0x454C5654;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 20;
+	public static final int RECORD_SIZE = 12;
+	// Records in one mapped window
+	private static final int WINDOW_RECORDS = (Integer.MAX_VALUE / RECORD_SIZE) & ~0xFFF;
+
+	private MappedByteBuffer[] _Windows;
+	private int _NumberOfFloors;
+	private long _NumberOfRecords;
+	// Index of the current record
+	private long _Record = Constants.INVALID_VALUE;
+
+	private long _Time = Constants.INVALID_TIME;
+	private int _EnterFloor;
+	private int _LeaveFloor;
+
+	public TraceArrivals(String fileName) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			ByteBuffer header = Header(channel, fileName);
+			_NumberOfFloors = header.getInt(8);
+			_NumberOfRecords = header.getLong(12);
+			// Mapping stays valid after the channel is closed
+			_Windows = new MappedByteBuffer[(int)((_NumberOfRecords + WINDOW_RECORDS - 1) / WINDOW_RECORDS)];
+			for (int i = 0; i < _Windows.length; ++i) {
+				long first = (long)i * WINDOW_RECORDS;
+				long records = Math.min(WINDOW_RECORDS, _NumberOfRecords - first);
+				_Windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+			}
+		}
+	}
+
+	// This reads only the header and returns number of floors used in trace file
+	public static int NumberOfFloors(String fileName) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			return Header(channel, fileName).getInt(8);
+		}
+	}
+	// This reads and checks the header of trace file
+	private static ByteBuffer Header(FileChannel channel,
+										String fileName) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining() && channel.read(header) >= 0) {}
+		if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+			throw new IOException("File " + fileName + " is not a trace file");
+		}
+		if (header.getInt(4) != VERSION) {
+			throw new IOException("Trace file " + fileName + " has unknown version " + header.getInt(4));
+		}
+		if (channel.size() < HEADER_SIZE + header.getLong(12) * RECORD_SIZE) {
+			throw new IOException("Trace file " + fileName + " is shorter than its records");
+		}
+		return header;
+	}
+
+	public int NumberOfFloors() {
+		return _NumberOfFloors;
+	}
+	public long NumberOfRecords() {
+		return _NumberOfRecords;
+	}
+
+	public boolean Next() {
+		if (_Record + 1 >= _NumberOfRecords) {
+			_Time = Constants.INVALID_TIME;
+			return false;
+		}
+		++_Record;
+		MappedByteBuffer window = _Windows[(int)(_Record / WINDOW_RECORDS)];
+		int offset = (int)(_Record % WINDOW_RECORDS) * RECORD_SIZE;
+		long time = window.getLong(offset);
+		_EnterFloor = window.getShort(offset + 8);
+		_LeaveFloor = window.getShort(offset + 10);
+		if (time < _Time && _Time != Constants.INVALID_TIME) {
+			throw new IllegalStateException("Trace record " + _Record + " is earlier than the previous one");
+		}
+		_Time = time;
+		return true;
+	}
+
+	public long Time() {
+		return _Time;
+	}
+	public int EnterFloor() {
+		return _EnterFloor;
+	}
+	public int LeaveFloor() {
+		return _LeaveFloor;
+	}
+}
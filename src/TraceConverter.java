@@ -0,0 +1,108 @@
+// Author: Sayeed Gulmahamad
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// This converts arrivals from CSV file into binary trace file (format is described in TraceArrivals)
+// Every CSV line is: arrival time in seconds, enter floor, leave floor (floors start from 1 as in results)
+// Lines must be ordered by time, empty lines, lines starting with # and a header line are skipped
+// Lines are converted as they are read, so files of any size can be converted
+// Usage: TraceConverter input.csv output.trace
+public class TraceConverter {
+	// Records are written in blocks of this many bytes
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.out.println("Usage: TraceConverter input.csv output.trace");
+			System.exit(1);
+			return;
+		}
+		try {
+			long records = Convert(args[0], args[1]);
+			System.out.format("Converted %d arrivals%n", records);
+		}
+		catch (IllegalArgumentException | IOException exception) {
+			System.out.println("ERROR: " + exception.getMessage());
+			System.exit(1);
+		}
+	}
+
+	// Converts CSV file to trace file and returns number of records
+	public static long Convert(String inputFile,
+								String outputFile) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new FileReader(inputFile));
+			FileChannel channel = FileChannel.open(Paths.get(outputFile), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE - BUFFER_SIZE % TraceArrivals.RECORD_SIZE);
+			// Header is written after all records, when number of floors and records are known
+			channel.position(TraceArrivals.HEADER_SIZE);
+			long records = 0;
+			long lastTime = 0;
+			int numberOfFloors = 0;
+			int lineNumber = 0;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				++lineNumber;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] fields = line.split(",");
+				if (fields.length != 3) {
+					throw new IllegalArgumentException("Line " + lineNumber + " does not have 3 fields");
+				}
+				long time;
+				int enterFloor;
+				int leaveFloor;
+				try {
+					time = Math.round(Double.parseDouble(fields[0].trim()) * Constants.TIME_UNIT_CHUNKS);
+					enterFloor = Integer.parseInt(fields[1].trim()) - 1;
+					leaveFloor = Integer.parseInt(fields[2].trim()) - 1;
+				}
+				catch (NumberFormatException exception) {
+					// First line can be a header
+					if (records == 0 && lineNumber == 1) {
+						continue;
+					}
+					throw new IllegalArgumentException("Line " + lineNumber + " has invalid value");
+				}
+				if (time < lastTime) {
+					throw new IllegalArgumentException("Line " + lineNumber + " is earlier than the previous one");
+				}
+				if (enterFloor < 0 || leaveFloor < 0 || enterFloor > Short.MAX_VALUE || leaveFloor > Short.MAX_VALUE || enterFloor == leaveFloor) {
+					throw new IllegalArgumentException("Line " + lineNumber + " has invalid floors");
+				}
+				if (!buffer.hasRemaining()) {
+					Write(channel, buffer);
+				}
+				buffer.putLong(time);
+				buffer.putShort((short)enterFloor);
+				buffer.putShort((short)leaveFloor);
+				lastTime = time;
+				numberOfFloors = Math.max(numberOfFloors, Math.max(enterFloor, leaveFloor) + 1);
+				++records;
+			}
+			Write(channel, buffer);
+			buffer.putInt(TraceArrivals.MAGIC);
+			buffer.putInt(TraceArrivals.VERSION);
+			buffer.putInt(numberOfFloors);
+			buffer.putLong(records);
+			channel.position(0);
+			Write(channel, buffer);
+			return records;
+		}
+	}
+
+	private static void Write(FileChannel channel,
+								ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
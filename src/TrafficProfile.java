@@ -0,0 +1,185 @@
+// Author: Sayeed Gulmahamad
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+// This is a traffic profile, which gives arrival rate and origin-destination weights that change over the simulated day
+// Profile is a list of periods, every period starts at its time and has its own rate and its own pairs of floors
+// Rate is constant within a period, or with interpolation it goes linearly from rate of one period to rate of the next one
+// Rate of the last period stays until all people are created, and if it is zero no more people are created
+// Pairs of floors are weights of going from enter floor to leave floor, a period without pairs has uniform floors (as random arrivals)
+
+// Profile file has one setting on every line (empty lines and lines starting with # are skipped), floors start from 1 as in results:
+//	interpolate					rates are interpolated between periods (must be before the first period)
+//	period,time,rate			period starts at time in seconds (the first one at 0) with rate in people per second
+//	od,enterFloor,leaveFloor,weight		weight of a pair in the last period, * is every floor, so od,1,*,1 is from the lobby to every other floor
+// Pairs given more than once add up, and a pair of a floor with itself is never used
+public class TrafficProfile {
+	private static final String INTERPOLATE = "interpolate";
+	private static final String PERIOD = "period";
+	private static final String OD = "od";
+	// Floor given as * in a pair
+	private static final int ALL_FLOORS = Constants.INVALID_VALUE;
+
+	private String _FileName;
+	private boolean _IsInterpolated = false;
+	// Start time (in seconds) and rate (people per second) of every period
+	private double[] _Starts;
+	private double[] _Rates;
+	// Pairs of every period as given (enter floor, leave floor, weight), empty for uniform floors
+	private ArrayList<ArrayList<double[]>> _Pairs = new ArrayList<ArrayList<double[]>>();
+	// Highest floor given in any pair (starting from zero)
+	private int _TopFloor = Constants.INVALID_VALUE;
+	// Alias tables already made, by number of floors
+	private HashMap<Integer, AliasTable[]> _Tables = new HashMap<Integer, AliasTable[]>();
+
+	private TrafficProfile() {}
+
+	public static TrafficProfile Read(String fileName) throws IOException {
+		TrafficProfile profile = new TrafficProfile();
+		profile._FileName = fileName;
+		ArrayList<Double> starts = new ArrayList<Double>();
+		ArrayList<Double> rates = new ArrayList<Double>();
+		try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+			int lineNumber = 0;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				++lineNumber;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] fields = line.split(",");
+				for (int i = 0; i < fields.length; ++i) {
+					fields[i] = fields[i].trim();
+				}
+				try {
+					if (fields[0].equals(INTERPOLATE) && fields.length == 1 && starts.isEmpty()) {
+						profile._IsInterpolated = true;
+					} else if (fields[0].equals(PERIOD) && fields.length == 3) {
+						double start = Double.parseDouble(fields[1]);
+						double rate = Double.parseDouble(fields[2]);
+						if (starts.isEmpty() ? start != 0 : !(start > starts.get(starts.size() - 1)) || Double.isInfinite(start)) {
+							throw new IllegalArgumentException("Line " + lineNumber + " of profile must start after the previous period (the first one at 0)");
+						}
+						if (!(rate >= 0) || Double.isInfinite(rate)) {
+							throw new IllegalArgumentException("Line " + lineNumber + " of profile has invalid rate");
+						}
+						starts.add(start);
+						rates.add(rate);
+						profile._Pairs.add(new ArrayList<double[]>());
+					} else if (fields[0].equals(OD) && fields.length == 4 && !starts.isEmpty()) {
+						int enterFloor = Floor(fields[1]);
+						int leaveFloor = Floor(fields[2]);
+						double weight = Double.parseDouble(fields[3]);
+						if (enterFloor < ALL_FLOORS || leaveFloor < ALL_FLOORS || (enterFloor == leaveFloor && enterFloor != ALL_FLOORS) ||
+							!(weight >= 0) || Double.isInfinite(weight)) {
+							throw new IllegalArgumentException("Line " + lineNumber + " of profile has invalid floors or weight");
+						}
+						profile._Pairs.get(profile._Pairs.size() - 1).add(new double[] { enterFloor, leaveFloor, weight });
+						profile._TopFloor = Math.max(profile._TopFloor, Math.max(enterFloor, leaveFloor));
+					} else {
+						throw new IllegalArgumentException("Line " + lineNumber + " of profile is invalid");
+					}
+				}
+				catch (NumberFormatException exception) {
+					throw new IllegalArgumentException("Line " + lineNumber + " of profile has invalid value");
+				}
+			}
+		}
+		if (starts.isEmpty()) {
+			throw new IllegalArgumentException("Profile " + fileName + " has no periods");
+		}
+		profile._Starts = new double[starts.size()];
+		profile._Rates = new double[rates.size()];
+		boolean isPositive = false;
+		for (int i = 0; i < starts.size(); ++i) {
+			profile._Starts[i] = starts.get(i);
+			profile._Rates[i] = rates.get(i);
+			isPositive |= rates.get(i) > 0;
+		}
+		if (!isPositive) {
+			throw new IllegalArgumentException("Profile " + fileName + " has no positive rate");
+		}
+		return profile;
+	}
+	private static int Floor(String value) {
+		return value.equals("*") ? ALL_FLOORS : Integer.parseInt(value) - 1;
+	}
+
+	public String FileName() {
+		return _FileName;
+	}
+	// Number of floors the building must have at least
+	public int NumberOfFloors() {
+		return _TopFloor + 1;
+	}
+	public boolean IsInterpolated() {
+		return _IsInterpolated;
+	}
+	public int NumberOfPeriods() {
+		return _Starts.length;
+	}
+	// Start time of a period in seconds, or infinity after the last period
+	public double Start(int period) {
+		return period < _Starts.length ? _Starts[period] : Double.POSITIVE_INFINITY;
+	}
+	// Highest rate within a period, which is the larger of its ends with interpolation
+	public double MaxRate(int period) {
+		if (!_IsInterpolated || period + 1 == _Rates.length) {
+			return _Rates[period];
+		}
+		return Math.max(_Rates[period], _Rates[period + 1]);
+	}
+	// Rate at given time within a period
+	public double Rate(int period,
+						double seconds) {
+		if (!_IsInterpolated || period + 1 == _Rates.length) {
+			return _Rates[period];
+		}
+		return _Rates[period] + (_Rates[period + 1] - _Rates[period]) * (seconds - _Starts[period]) / (_Starts[period + 1] - _Starts[period]);
+	}
+
+	// This returns alias table of pairs of every period for a building with given number of floors, or null for uniform floors
+	// Pair index in a table is enter floor * number of floors + leave floor
+	// Tables are made once for every number of floors (it can be swept) and then shared by all replications, which only read them
+	// Replications on different threads can ask for them at the same time, so this is synchronized
+	public synchronized AliasTable[] Tables(int numberOfFloors) {
+		AliasTable[] tables = _Tables.get(numberOfFloors);
+		if (tables != null) {
+			return tables;
+		}
+		tables = new AliasTable[_Starts.length];
+		for (int i = 0; i < tables.length; ++i) {
+			ArrayList<double[]> pairs = _Pairs.get(i);
+			if (pairs.isEmpty()) {
+				continue;
+			}
+			double[] weights = new double[numberOfFloors * numberOfFloors];
+			for (int j = 0; j < pairs.size(); ++j) {
+				double[] pair = pairs.get(j);
+				int enterFloor = (int)pair[0];
+				int leaveFloor = (int)pair[1];
+				int lastEnter = enterFloor == ALL_FLOORS ? numberOfFloors - 1 : enterFloor;
+				int lastLeave = leaveFloor == ALL_FLOORS ? numberOfFloors - 1 : leaveFloor;
+				for (int enter = enterFloor == ALL_FLOORS ? 0 : enterFloor; enter <= lastEnter; ++enter) {
+					for (int leave = leaveFloor == ALL_FLOORS ? 0 : leaveFloor; leave <= lastLeave; ++leave) {
+						if (enter != leave) {
+							weights[enter * numberOfFloors + leave] += pair[2];
+						}
+					}
+				}
+			}
+			try {
+				tables[i] = new AliasTable(weights);
+			}
+			catch (IllegalArgumentException exception) {
+				throw new IllegalArgumentException("Period " + (i + 1) + " of profile " + _FileName + " has no pair with weight");
+			}
+		}
+		_Tables.put(numberOfFloors, tables);
+		return tables;
+	}
+}
@@ -0,0 +1,66 @@
+// Author: Sayeed Gulmahamad
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// This is a worker process that runs replications given by its coordinator
+// Replication indices are read from standard input: their number, then the indices (ints)
+// Statistic snapshot of every replication is written to standard output as soon as the replication finishes
+// Output starts with MAGIC, then every replication is its index followed by its snapshot, and END marks the end
+// Everything printed by the simulation goes to standard error, so standard output only has snapshots
+public class Worker {
+	public static final int MAGIC = 0x454C5657;
+	public static final int END = Constants.INVALID_VALUE;
+
+	public static void Run(Configuration configuration) throws IOException {
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+		System.setOut(System.err);
+		DataInputStream input = new DataInputStream(new BufferedInputStream(System.in));
+		int[] replications = new int[input.readInt()];
+		for (int i = 0; i < replications.length; ++i) {
+			replications[i] = input.readInt();
+		}
+		output.writeInt(MAGIC);
+		output.flush();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(configuration.NumberOfWorkers(), replications.length)));
+		try {
+			CompletionService<Integer> completion = new ExecutorCompletionService<Integer>(executor);
+			for (int i = 0; i < replications.length; ++i) {
+				int replication = replications[i];
+				completion.submit(() -> {
+					Statistic statistic = MonteCarlo.Replicate(configuration, replication);
+					synchronized (output) {
+						output.writeInt(replication);
+						statistic.Write(output);
+						output.flush();
+					}
+					return replication;
+				});
+			}
+			for (int i = 0; i < replications.length; ++i) {
+				completion.take().get();
+			}
+			output.writeInt(END);
+			output.flush();
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Worker interrupted", exception);
+		}
+		catch (ExecutionException exception) {
+			throw new RuntimeException("Worker replication failed", exception.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+}
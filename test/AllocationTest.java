@@ -0,0 +1,83 @@
+// Author: Sayeed Gulmahamad
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+// This checks that the dispatch hot path does not allocate once it is warmed up
+// Dispatch and elevator queries are measured on a simulation that has been running for a while, as in HotPathBenchmark
+// Allocated bytes of the thread are read before and after, and the cost of reading them is measured the same way and taken off
+// Compiled code is needed for events to be removed by escape analysis, so rounds are repeated until one is measured after compilation
+// Time changes with every call, so pickup times of moving elevators are calculated again and not only read from cache
+// It stays within a second after the simulation time, since moving elevators would otherwise leave the building and could not be assigned
+public class AllocationTest {
+	private static final int FLOORS = 50;
+	private static final int ELEVATORS = 16;
+	private static final int WARMUP_EVENTS = 100000;
+	private static final int CALLS = 100000;
+	private static final int ROUNDS = 20;
+	private static final int TIME_WINDOW = Constants.TIME_UNIT_CHUNKS;
+
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+	// Sum of results, so calls are not removed
+	private long _Sink;
+
+	@Test
+	public void PickupDispatchDoesNotAllocate() {
+		assertEquals(0, AllocatedBytes(DispatchStrategy.PICKUP));
+	}
+
+	@Test
+	public void LookAheadDispatchDoesNotAllocate() {
+		assertEquals(0, AllocatedBytes(DispatchStrategy.LOOK_AHEAD));
+	}
+
+	// This returns the lowest bytes allocated by a round of calls
+	private long AllocatedBytes(String dispatch) {
+		Configuration configuration = new Configuration();
+		configuration.Set(Configuration.FLOORS, Integer.toString(FLOORS));
+		configuration.Set(Configuration.ELEVATORS, Integer.toString(ELEVATORS));
+		configuration.Set(Configuration.PEOPLE, Integer.toString(Integer.MAX_VALUE));
+		configuration.Set(Configuration.DISPATCH, dispatch);
+		Algorithm algorithm = new Algorithm(configuration,
+											new RandomArrivals(configuration, new RandomStreams(1, 0)),
+											DispatchStrategy.Create(configuration),
+											null,
+											null);
+		for (int i = 0; i < WARMUP_EVENTS; ++i) {
+			algorithm.Step();
+		}
+		DispatchStrategy strategy = DispatchStrategy.Create(configuration);
+		ArrayList<Elevator> elevators = algorithm.Elevators();
+		long time = algorithm.Time();
+		long minimum = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS && minimum != 0; ++round) {
+			long start = THREADS.getCurrentThreadAllocatedBytes();
+			long empty = THREADS.getCurrentThreadAllocatedBytes() - start;
+			start = THREADS.getCurrentThreadAllocatedBytes();
+			Calls(strategy, elevators, time);
+			minimum = Math.min(minimum, THREADS.getCurrentThreadAllocatedBytes() - start - empty);
+		}
+		return minimum;
+	}
+
+	// This dispatches every floor and direction, and asks every elevator for its stop counts and position
+	private void Calls(DispatchStrategy strategy,
+						ArrayList<Elevator> elevators,
+						long startTime) {
+		for (int i = 0; i < CALLS; ++i) {
+			long time = startTime + 1 + i % TIME_WINDOW;
+			int floor = i % FLOORS;
+			int direction = floor == 0 || (floor != FLOORS - 1 && (i / FLOORS) % 2 == 0) ? 1 : -1;
+			Elevator chosen = strategy.Choose(elevators, floor, direction, time);
+			_Sink += chosen == null ? Constants.INVALID_VALUE : chosen.Index();
+			Elevator elevator = elevators.get(i % ELEVATORS);
+			_Sink += elevator.Position(time) + elevator.FirstStopFloor() + elevator.LastStopFloor();
+			_Sink += elevator.WaitStopFloors() + elevator.TravelStopFloors();
+			_Sink += elevator.WaitStopFloorsBeforeEnter(floor) + elevator.TravelStopFloorsBeforeEnter(floor);
+		}
+	}
+}
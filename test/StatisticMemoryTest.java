@@ -0,0 +1,54 @@
+// Author: Sayeed Gulmahamad
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.Reference;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+// This checks that a statistic of a tall building stays small when every floor pair only has a few people
+// With a full histogram for every pair this was about 32 KB per pair, so 200 floors needed more than 1 GB
+// Retained size is the used heap after collection with the statistic kept alive, less the used heap before it was made
+public class StatisticMemoryTest {
+	private static final int FLOORS = 200;
+	private static final int PEOPLE_PER_PAIR = 10;
+	// Wait and travel times are up to 10 and 2 minutes in chunks, so every pair has values in several power of two ranges
+	private static final int MAX_WAIT_TIME = 600 * Constants.TIME_UNIT_CHUNKS;
+	private static final int MAX_TRAVEL_TIME = 120 * Constants.TIME_UNIT_CHUNKS;
+	// Bound is about 2 KB per pair for the replication and the merged statistic together
+
+	@Test
+	public void ManyPairsWithFewPeopleStaySmall() {
+		long before = UsedHeap();
+		SplittableRandom random = new SplittableRandom(1);
+		Statistic statistic = new Statistic(FLOORS);
+		for (int enterFloor = 0; enterFloor < FLOORS; ++enterFloor) {
+			for (int leaveFloor = 0; leaveFloor < FLOORS; ++leaveFloor) {
+				if (enterFloor == leaveFloor) {
+					continue;
+				}
+				for (int i = 0; i < PEOPLE_PER_PAIR; ++i) {
+					statistic.Add(enterFloor, leaveFloor, 0, random.nextInt(MAX_WAIT_TIME), random.nextInt(MAX_TRAVEL_TIME));
+				}
+			}
+		}
+		// Replications are merged into one statistic at the end, which holds every pair again
+		Statistic merged = new Statistic(FLOORS);
+		merged.Merge(statistic);
+		long retained = UsedHeap() - before;
+		assertEquals(FLOORS * (FLOORS - 1), merged.Pairs().length);
+		assertEquals((long)FLOORS * (FLOORS - 1) * PEOPLE_PER_PAIR, merged.NumberOfPeople());
+		Reference.reachabilityFence(statistic);
+		Reference.reachabilityFence(merged);
+	}
+
+	// This returns used heap after garbage collection
+	private static long UsedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; ++i) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}